@@ -0,0 +1,78 @@
+// Load test per confrontare il throughput con e senza virtual thread
+// (VIRTUAL_THREADS_ENABLED=false/true), vedere README "Virtual Thread".
+//
+// Uso:
+//   k6 run -e BASE_URL=http://localhost:3001 -e VUS=1200 -e DURATION=2m \
+//       --summary-export=summary-platform.json loadtest/virtual-threads.js
+//
+// Ogni VU tiene aperta una connessione HTTP keep-alive ed esegue un mix di
+// letture: lista a cursore e ricerca full-text (JDBC), singolo todo (Redis)
+// e profilo (cache L2 / JDBC). Gli endpoint /auth hanno il rate limiting per
+// IP: l'utente viene registrato e autenticato una sola volta in setup().
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:3001';
+const EMAIL = __ENV.EMAIL || 'loadtest@example.com';
+const PASSWORD = __ENV.PASSWORD || 'loadtest-password';
+const TODOS = 200;
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 1200),
+            duration: __ENV.DURATION || '2m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+    // 201 alla prima esecuzione, errore se l'utente esiste già: si prosegue con il login
+    http.post(`${BASE_URL}/auth/register`, JSON.stringify({ nome: 'Load Test', email: EMAIL, password: PASSWORD }),
+        { headers: JSON_HEADERS });
+
+    const login = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: JSON_HEADERS });
+    check(login, { 'login 200': (r) => r.status === 200 });
+    const token = login.json('data.accessToken');
+    const auth = { Authorization: `Bearer ${token}`, 'Content-Type': 'application/json' };
+
+    let ids = http.get(`${BASE_URL}/todos/scroll?limit=100`, { headers: auth }).json('data.content')
+        .map((todo) => todo.id);
+    if (ids.length === 0) {
+        const todos = [];
+        for (let i = 0; i < TODOS; i++) {
+            todos.push({ title: `Load test todo ${i}` });
+        }
+        http.post(`${BASE_URL}/todos/batch`, JSON.stringify({ todos }), { headers: auth });
+        ids = http.get(`${BASE_URL}/todos/scroll?limit=100`, { headers: auth }).json('data.content')
+            .map((todo) => todo.id);
+    }
+
+    return { auth, ids };
+}
+
+export default function (data) {
+    const params = { headers: data.auth };
+    const roll = Math.random();
+    let res;
+
+    if (roll < 0.4) {
+        res = http.get(`${BASE_URL}/todos/scroll?limit=20`, Object.assign({ tags: { name: 'scroll' } }, params));
+    } else if (roll < 0.6) {
+        res = http.get(`${BASE_URL}/todos/search?q=todo&withTotal=false`,
+            Object.assign({ tags: { name: 'search' } }, params));
+    } else if (roll < 0.9) {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        res = http.get(`${BASE_URL}/todos/${id}`, Object.assign({ tags: { name: 'findOne' } }, params));
+    } else {
+        res = http.get(`${BASE_URL}/users/profile`, Object.assign({ tags: { name: 'profile' } }, params));
+    }
+
+    check(res, { 'status 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,114 @@
+package com.example.dataware.todolist.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.example.dataware.todolist.datasource.ConnectionWaitMonitor;
+import com.example.dataware.todolist.datasource.ReplicaRoutingDataSource;
+import com.example.dataware.todolist.datasource.WaitTrackingDataSource;
+import com.example.dataware.todolist.datasource.enums.ReplicaSelection;
+import com.example.dataware.todolist.service.ReadYourWritesService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configurazione dei DataSource: primary e repliche in lettura opzionali.
+ *
+ * Fornisce:
+ * 1. Pool del primary (spring.datasource.*), usato per le scritture, le
+ * migrazioni Flyway e le transazioni non readOnly.
+ * 2. Pool delle repliche (app.datasource.replica.urls, vuoto = nessuna
+ * replica), in sola lettura, dietro a ReplicaRoutingDataSource.
+ * 3. DataSource dell'applicazione: LazyConnectionDataSourceProxy prende la
+ * connessione solo alla prima istruzione SQL, quando la transazione ha già
+ * dichiarato se è readOnly. Le transazioni @Transactional(readOnly = true)
+ * usano ReplicaRoutingDataSource, tutte le altre il primary.
+ * 4. Metriche dei pool: hikaricp.connections.* con tag pool (il primary è
+ * registrato da Spring Boot, le repliche qui) e attese lente per call site
+ * (WaitTrackingDataSource, ConnectionWaitMonitor).
+ *
+ * Con le repliche la connessione deve essere scelta per transazione:
+ * l'open-in-view è disabilitato (spring.jpa.open-in-view=false), altrimenti
+ * la prima transazione di una richiesta fisserebbe la connessione per tutte
+ * le successive.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    // Attesa massima per una connessione di una replica: oltre, la lettura
+    // passa al primary e la replica resta esclusa fino al prossimo controllo
+    private static final Duration REPLICA_CONNECTION_TIMEOUT = Duration.ofSeconds(2);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ReadYourWritesService readYourWritesService,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.replica.urls}") List<String> urls,
+            @Value("${app.datasource.replica.username}") String username,
+            @Value("${app.datasource.replica.password}") String password,
+            @Value("${app.datasource.replica.maximum-pool-size}") int maximumPoolSize,
+            @Value("${app.datasource.replica.selection}") ReplicaSelection selection,
+            @Value("${app.datasource.replica.max-lag}") Duration maxLag) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setReadOnly(true);
+            config.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT.toMillis());
+            // Una replica non raggiungibile all'avvio non blocca l'applicazione
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, selection, maxLag,
+                readYourWritesService, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            ConnectionWaitMonitor connectionWaitMonitor) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new WaitTrackingDataSource(primaryDataSource, "primary", connectionWaitMonitor));
+        // Le letture sono misurate sul routing: comprendono i fallback sul primary
+        dataSource.setReadOnlyDataSource(
+                new WaitTrackingDataSource(replicaRoutingDataSource, "read-only", connectionWaitMonitor));
+        return dataSource;
+    }
+
+}
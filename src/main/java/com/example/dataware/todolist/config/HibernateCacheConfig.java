@@ -0,0 +1,63 @@
+package com.example.dataware.todolist.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Configurazione della cache di secondo livello di Hibernate (JCache con
+ * provider Caffeine, in-process).
+ *
+ * Fornisce:
+ * 1. CacheManager JCache con le region usate dalle entità, limitate in numero
+ * di entry (app.cache.user.maximum-size) e con scadenza dopo la scrittura
+ * (app.cache.user.ttl), che è anche il limite di staleness se un messaggio di
+ * invalidazione tra istanze va perso (vedere UserCacheService).
+ * 2. Il CacheManager viene passato a Hibernate al posto di quello di default,
+ * così le region non dipendono da file di configurazione del provider.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    // Entità User (vedere User)
+    public static final String USER_REGION = "users";
+    // Risoluzione email → id (@NaturalId di User)
+    public static final String USER_NATURAL_ID_REGION = "users-natural-id";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.user.maximum-size}") long maximumSize,
+            @Value("${app.cache.user.ttl}") Duration ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("todolist:hibernate"),
+                getClass().getClassLoader());
+
+        for (String region : new String[] { USER_REGION, USER_NATURAL_ID_REGION }) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            cacheManager.createCache(region, configuration);
+        }
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+}
@@ -5,9 +5,14 @@ import io.github.bucket4j.redis.lettuce.Bucket4jLettuce;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI.Builder;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.metrics.MicrometerCommandLatencyRecorder;
+import io.lettuce.core.metrics.MicrometerOptions;
 import io.lettuce.core.codec.ByteArrayCodec;
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -22,6 +27,10 @@ import org.springframework.context.annotation.Configuration;
  * distribuito.
  * 3. Connessione per dati applicativi leggibili (String -> String) per token,
  * JSON e oggetti.
+ * 4. Connessione dedicata alle sottoscrizioni pub/sub (una connessione in
+ * modalità subscribe non può eseguire altri comandi).
+ * 5. Metriche di latenza dei comandi (lettuce.command.completion e
+ * lettuce.command.firstresponse, con tag command e remote).
  * 
  * I bean creati gestiscono automaticamente la chiusura delle connessioni e
  * delle risorse
@@ -40,6 +49,17 @@ public class RedisConfig {
     @Value("${spring.data.redis.password}")
     private String redisPassword;
 
+    // --------------------------
+    // Risorse condivise di Lettuce (event-loop, metriche dei comandi)
+    // --------------------------
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources redisClientResources(MeterRegistry meterRegistry) {
+        return ClientResources.builder()
+                .commandLatencyRecorder(new MicrometerCommandLatencyRecorder(meterRegistry,
+                        MicrometerOptions.builder().histogram(true).build()))
+                .build();
+    }
+
     // --------------------------
     // Connessione Lettuce generica
     // --------------------------
@@ -47,7 +67,7 @@ public class RedisConfig {
     // Spring chiama redisClient.shutdown() allo stop dell'app.
     // Serve a chiudere correttamente thread ed event-loop interni di Lettuce
     // ed evitare memory leak.
-    public RedisClient redisClient() {
+    public RedisClient redisClient(ClientResources redisClientResources) {
         Builder uriBuilder = Builder
                 .redis(redisHost)
                 .withPort(redisPort);
@@ -56,7 +76,7 @@ public class RedisConfig {
             uriBuilder.withPassword(redisPassword.toCharArray());
         }
 
-        return RedisClient.create(uriBuilder.build());
+        return RedisClient.create(redisClientResources, uriBuilder.build());
     }
 
     // --------------------------
@@ -88,4 +108,15 @@ public class RedisConfig {
     public StatefulRedisConnection<String, String> redisConnectionApp(RedisClient redisClient) {
         return redisClient.connect(RedisCodec.of(StringCodec.UTF8, StringCodec.UTF8));
     }
+
+    // --------------------------
+    // Connessione per le sottoscrizioni pub/sub (invalidazione near cache,
+    // eventi tra istanze)
+    // Key -> String (canale)
+    // Value -> String (messaggio)
+    // --------------------------
+    @Bean(destroyMethod = "close")
+    public StatefulRedisPubSubConnection<String, String> redisPubSubConnection(RedisClient redisClient) {
+        return redisClient.connectPubSub(RedisCodec.of(StringCodec.UTF8, StringCodec.UTF8));
+    }
 }
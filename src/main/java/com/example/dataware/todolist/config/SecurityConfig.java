@@ -1,7 +1,9 @@
 package com.example.dataware.todolist.config;
 
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -14,6 +16,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import com.example.dataware.todolist.filter.jwt.JwtAccessFilter;
 import com.example.dataware.todolist.filter.jwt.JwtRefreshFilter;
 import com.example.dataware.todolist.filter.rateLimiter.RateLimitFilter;
+import com.example.dataware.todolist.util.password.OffloadingPasswordEncoder;
 
 @Configuration
 @EnableWebSecurity // Abilita sicurezza web
@@ -29,6 +32,11 @@ public class SecurityConfig {
 
         http.csrf((csfr) -> csfr.disable())
                 .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Gli endpoint Actuator (metriche) sono riservati agli ADMIN,
+                // il resto è autorizzato tramite @PreAuthorize nei controller
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        .anyRequest().permitAll())
                 .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterAfter(jwtAccessFilter, RateLimitFilter.class)
                 .addFilterAfter(jwtRefreshFilter, JwtAccessFilter.class);
@@ -37,7 +45,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    PasswordEncoder passwordEncoder() {
+    PasswordEncoder passwordEncoder(Environment environment) {
+        // Con i virtual thread BCrypt gira su un pool dedicato (metà dei core):
+        // gli hash non occupano i carrier thread delle altre richieste
+        if (Threading.VIRTUAL.isActive(environment)) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            return new OffloadingPasswordEncoder(new BCryptPasswordEncoder(), threads);
+        }
         return new BCryptPasswordEncoder();
     }
 }
\ No newline at end of file
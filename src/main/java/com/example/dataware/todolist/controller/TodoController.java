@@ -1,8 +1,18 @@
 package com.example.dataware.todolist.controller;
 
-import org.springframework.data.domain.Page;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,24 +21,49 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.example.dataware.todolist.dto.response.BatchItemResponse;
+import com.example.dataware.todolist.dto.response.BatchResponse;
+import com.example.dataware.todolist.dto.response.BulkUpdateResponse;
+import com.example.dataware.todolist.dto.response.CursorResponse;
+import com.example.dataware.todolist.dto.response.TodoChangesResponse;
+import com.example.dataware.todolist.dto.response.TodoImportResponse;
 import com.example.dataware.todolist.dto.response.PageResponse;
 import com.example.dataware.todolist.dto.response.TodoResponse;
+import com.example.dataware.todolist.dto.response.TodoStatsResponse;
 import com.example.dataware.todolist.dto.response.builder.SuccessResponse;
 import com.example.dataware.todolist.dto.response.builder.SuccessResponseBuilder;
+import com.example.dataware.todolist.dto.validator.TodoBatchCreateDto;
+import com.example.dataware.todolist.dto.validator.TodoBatchDeleteDto;
+import com.example.dataware.todolist.dto.validator.TodoBatchUpdateDto;
+import com.example.dataware.todolist.dto.validator.TodoBatchUpdateItemDto;
 import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.dto.validator.TodoMarkAllDto;
 import com.example.dataware.todolist.dto.validator.TodoUpdateDto;
 import com.example.dataware.todolist.entity.Todo;
 import com.example.dataware.todolist.filter.jwt.payload.JwtPayload;
 import com.example.dataware.todolist.mapper.TodoMapper;
+import com.example.dataware.todolist.service.TodoEventService;
+import com.example.dataware.todolist.service.interfaces.TodoImportService;
 import com.example.dataware.todolist.service.interfaces.TodoService;
+import com.example.dataware.todolist.util.cursor.TodoCursorCodec;
+import com.example.dataware.todolist.util.etag.ConditionalGet;
+import com.example.dataware.todolist.util.etag.IfMatch;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -39,6 +74,8 @@ import lombok.extern.slf4j.Slf4j;
 public class TodoController {
 
     private final TodoService todoService;
+    private final TodoImportService todoImportService;
+    private final TodoEventService todoEventService;
     private final TodoMapper todoMapper;
     private final SuccessResponseBuilder apiResponseBuilder;
 
@@ -48,22 +85,153 @@ public class TodoController {
             @RequestParam(defaultValue = "1") @Min(1) int page,
             @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
             @RequestParam(required = false) Boolean completed,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            Sort sort,
+            ServletWebRequest request) {
+
+        Long userId = jwtPayload.getUserId();
+        // 304 senza leggere cache o DB se il client ha già la versione corrente
+        if (ConditionalGet.checkNotModified(request, ConditionalGet.todos(userId, todoService.version(userId)))) {
+            return null;
+        }
+
+        page = page - 1;
+        PageResponse<TodoResponse> pageResponse = todoService.findAll(userId, page, limit, completed, sort,
+                withTotal, includeArchived);
+        return apiResponseBuilder.success(pageResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<SuccessResponse<CursorResponse<TodoResponse>>> scroll(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @RequestParam(required = false) Boolean completed,
             Sort sort) {
 
+        Window<Todo> todos = todoService.scroll(jwtPayload.getUserId(), cursor, limit, completed, sort);
+        String nextCursor = todos.hasNext() ? TodoCursorCodec.encode(todos.positionAt(todos.size() - 1)) : null;
+        List<TodoResponse> content = todos.map(todo -> todoMapper.toDTO(todo)).getContent();
+        CursorResponse<TodoResponse> cursorResponse = CursorResponse.of(content, limit, nextCursor);
+        return apiResponseBuilder.success(cursorResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<SuccessResponse<PageResponse<TodoResponse>>> search(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @RequestParam @NotBlank @Size(max = 100) String q,
+            @RequestParam(defaultValue = "1") @Min(1) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+
         page = page - 1;
-        Page<Todo> todos = todoService.findAll(jwtPayload.getEmail(), page, limit, completed, sort);
-        Page<TodoResponse> todoResponsePage = todos.map(todo -> todoMapper.toDTO(todo));
-        PageResponse<TodoResponse> pageResponse = PageResponse.of(todoResponsePage);
+        PageResponse<TodoResponse> pageResponse = todoService.search(jwtPayload.getUserId(), q, page, limit,
+                completed, withTotal);
         return apiResponseBuilder.success(pageResponse, HttpStatus.OK);
     }
 
+    @GetMapping("/search/scroll")
+    public ResponseEntity<SuccessResponse<CursorResponse<TodoResponse>>> searchScroll(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @RequestParam @NotBlank @Size(max = 100) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @RequestParam(required = false) Boolean completed) {
+
+        CursorResponse<TodoResponse> cursorResponse = todoService.searchScroll(jwtPayload.getUserId(), q, cursor,
+                limit, completed);
+        return apiResponseBuilder.success(cursorResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Export completo dei todo dell'utente in streaming: il body viene scritto
+     * da un thread del task executor (il thread della richiesta viene
+     * liberato subito) man mano che le righe arrivano dal DB.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @RequestParam(defaultValue = "ndjson") TodoExportFormat format) {
+
+        Long userId = jwtPayload.getUserId();
+        StreamingResponseBody body = outputStream -> todoService.export(userId, format, outputStream);
+
+        String filename = "todos" + format.getExtension();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMimeType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * Import dei todo dal body della richiesta (NDJSON o CSV, stesso formato
+     * dell'export), letto in streaming riga per riga e salvato a batch.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<SuccessResponse<TodoImportResponse>> importTodos(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @RequestParam(defaultValue = "ndjson") TodoExportFormat format,
+            InputStream body) throws IOException {
+
+        TodoImportResponse todoImportResponse = todoImportService.importTodos(jwtPayload.getUserId(), format,
+                body);
+        return apiResponseBuilder.success(todoImportResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Sincronizzazione incrementale: todo creati, modificati ed eliminati dopo
+     * il token since (senza since restituisce solo il token corrente).
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<SuccessResponse<TodoChangesResponse>> changes(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @RequestParam(required = false) @PositiveOrZero Long since,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+
+        TodoChangesResponse todoChangesResponse = todoService.changes(jwtPayload.getUserId(), since, limit);
+        return apiResponseBuilder.success(todoChangesResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Stream Server-Sent Events delle modifiche ai todo dell'utente (eventi
+     * created, updated, deleted con gli id coinvolti).
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@AuthenticationPrincipal JwtPayload jwtPayload) {
+
+        SseEmitter emitter = todoEventService.connect(jwtPayload.getUserId());
+
+        // X-Accel-Buffering: disabilita il buffering della risposta nei proxy nginx
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<SuccessResponse<TodoStatsResponse>> stats(
+            @AuthenticationPrincipal JwtPayload jwtPayload) {
+
+        TodoStatsResponse todoStatsResponse = todoService.stats(jwtPayload.getUserId());
+        return apiResponseBuilder.success(todoStatsResponse, HttpStatus.OK);
+    }
+
     @GetMapping("/{todoId}")
     public ResponseEntity<SuccessResponse<TodoResponse>> findOne(
             @AuthenticationPrincipal JwtPayload jwtPayload,
-            @Positive @PathVariable Long todoId) {
+            @Positive @PathVariable Long todoId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            ServletWebRequest request) {
+
+        // ETag per todo (campo version): serve il todo, letto dalla cache
+        TodoResponse todoResponse = todoService.findOne(todoId, jwtPayload.getUserId(), includeArchived);
+        if (ConditionalGet.checkNotModified(request, ConditionalGet.todo(todoResponse))) {
+            return null;
+        }
 
-        Todo todo = todoService.findOne(todoId, jwtPayload.getEmail());
-        TodoResponse todoResponse = todoMapper.toDTO(todo);
         return apiResponseBuilder.success(todoResponse, HttpStatus.OK);
     }
 
@@ -72,7 +240,7 @@ public class TodoController {
             @AuthenticationPrincipal JwtPayload jwtPayload,
             @Valid @RequestBody TodoDto todoDto) {
 
-        Todo todo = todoService.create(todoDto, jwtPayload.getEmail());
+        Todo todo = todoService.create(todoDto, jwtPayload.getUserId());
         TodoResponse todoResponse = todoMapper.toDTO(todo);
         return apiResponseBuilder.success(todoResponse, HttpStatus.CREATED);
     }
@@ -81,10 +249,12 @@ public class TodoController {
     public ResponseEntity<SuccessResponse<TodoResponse>> update(
             @AuthenticationPrincipal JwtPayload jwtPayload,
             @Positive @PathVariable Long todoId,
-            @Valid @RequestBody TodoUpdateDto todoUpdateDto) {
+            @Valid @RequestBody TodoUpdateDto todoUpdateDto,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         log.debug(todoUpdateDto.toString());
-        Todo todo = todoService.update(todoId, todoUpdateDto, jwtPayload.getEmail());
+        Long expectedVersion = IfMatch.expectedVersion(ifMatch);
+        Todo todo = todoService.update(todoId, todoUpdateDto, expectedVersion, jwtPayload.getUserId());
         TodoResponse todoResponse = todoMapper.toDTO(todo);
         return apiResponseBuilder.success(todoResponse, HttpStatus.OK);
     }
@@ -92,10 +262,80 @@ public class TodoController {
     @DeleteMapping("/{todoId}")
     public ResponseEntity<SuccessResponse<Void>> delete(
             @Positive @AuthenticationPrincipal JwtPayload jwtPayload,
-            @PathVariable Long todoId) {
+            @PathVariable Long todoId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        todoService.delete(todoId, jwtPayload.getEmail());
+        todoService.delete(todoId, IfMatch.expectedVersion(ifMatch), jwtPayload.getUserId());
         return apiResponseBuilder.success(HttpStatus.OK);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<SuccessResponse<BatchResponse<TodoResponse>>> createAll(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @Valid @RequestBody TodoBatchCreateDto todoBatchCreateDto) {
+
+        List<Todo> todos = todoService.createAll(todoBatchCreateDto.getTodos(), jwtPayload.getUserId());
+
+        List<BatchItemResponse<TodoResponse>> results = new ArrayList<>();
+        for (int i = 0; i < todos.size(); i++) {
+            Todo todo = todos.get(i);
+            results.add(BatchItemResponse.success(i, todo.getId(), HttpStatus.CREATED.value(),
+                    todoMapper.toDTO(todo)));
+        }
+
+        return apiResponseBuilder.success(BatchResponse.of(results), HttpStatus.CREATED);
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<SuccessResponse<BatchResponse<TodoResponse>>> updateAll(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @Valid @RequestBody TodoBatchUpdateDto todoBatchUpdateDto) {
+
+        List<TodoBatchUpdateItemDto> items = todoBatchUpdateDto.getTodos();
+        Map<Long, Todo> todos = todoService.updateAll(items, jwtPayload.getUserId());
+
+        List<BatchItemResponse<TodoResponse>> results = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Long todoId = items.get(i).getId();
+            Todo todo = todos.get(todoId);
+            results.add(todo != null
+                    ? BatchItemResponse.success(i, todoId, HttpStatus.OK.value(), todoMapper.toDTO(todo))
+                    : BatchItemResponse.failure(i, todoId, HttpStatus.NOT_FOUND.value(), "Todo non trovato."));
+        }
+
+        return apiResponseBuilder.success(BatchResponse.of(results), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<SuccessResponse<BatchResponse<Void>>> deleteAll(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @Valid @RequestBody TodoBatchDeleteDto todoBatchDeleteDto) {
+
+        List<Long> todoIds = todoBatchDeleteDto.getIds();
+        Set<Long> deletedIds = todoService.deleteAll(todoIds, jwtPayload.getUserId());
+
+        List<BatchItemResponse<Void>> results = new ArrayList<>();
+        for (int i = 0; i < todoIds.size(); i++) {
+            Long todoId = todoIds.get(i);
+            results.add(deletedIds.contains(todoId)
+                    ? BatchItemResponse.success(i, todoId, HttpStatus.OK.value(), null)
+                    : BatchItemResponse.failure(i, todoId, HttpStatus.NOT_FOUND.value(), "Todo non trovato."));
+        }
+
+        return apiResponseBuilder.success(BatchResponse.of(results), HttpStatus.OK);
+    }
+
+    @PatchMapping("/batch/completed")
+    public ResponseEntity<SuccessResponse<BulkUpdateResponse>> markAll(
+            @AuthenticationPrincipal JwtPayload jwtPayload,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) @Size(max = 100) String q,
+            @Valid @RequestBody TodoMarkAllDto todoMarkAllDto) {
+
+        // Filtri opzionali come GET /todos (completed) e GET /todos/search (q)
+        int updated = todoService.markAll(todoMarkAllDto.getCompleted(), completed, q, jwtPayload.getUserId());
+        BulkUpdateResponse bulkUpdateResponse = BulkUpdateResponse.builder().updated(updated).build();
+        return apiResponseBuilder.success(bulkUpdateResponse, HttpStatus.OK);
+    }
+
 }
@@ -1,6 +1,6 @@
 package com.example.dataware.todolist.controller;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,19 +11,26 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.dataware.todolist.dto.response.CursorResponse;
 import com.example.dataware.todolist.dto.response.PageResponse;
+import com.example.dataware.todolist.dto.response.UserDeletionResponse;
+import com.example.dataware.todolist.dto.response.UserDirectoryResponse;
 import com.example.dataware.todolist.dto.response.UserResponse;
 import com.example.dataware.todolist.dto.response.builder.SuccessResponse;
 import com.example.dataware.todolist.dto.response.builder.SuccessResponseBuilder;
 import com.example.dataware.todolist.entity.User;
 import com.example.dataware.todolist.filter.jwt.payload.JwtPayload;
 import com.example.dataware.todolist.mapper.UserMapper;
+import com.example.dataware.todolist.service.interfaces.UserDeletionService;
 import com.example.dataware.todolist.service.interfaces.UserService;
+import com.example.dataware.todolist.util.etag.ConditionalGet;
 
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,6 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 public class UserController {
 
     private final UserService userService;
+    private final UserDeletionService userDeletionService;
     private final UserMapper userMapper;
     private final SuccessResponseBuilder apiResponseBuilder;
 
@@ -42,17 +50,61 @@ public class UserController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<SuccessResponse<PageResponse<UserResponse>>> findAll(
             @RequestParam(defaultValue = "1") @Min(1) int page,
-            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
 
         page = page - 1;
-        Page<User> users = userService.findAll(page, limit);
-        Page<UserResponse> userResponsePage = users.map(user -> userMapper.toDTO(user));
-        PageResponse<UserResponse> pageResponse = PageResponse.of(userResponsePage);
+        Slice<User> users = userService.findAll(page, limit);
+        Slice<UserResponse> userResponseSlice = users.map(user -> userMapper.toDTO(user));
+        PageResponse<UserResponse> pageResponse = PageResponse.of(userResponseSlice);
+        if (withTotal) {
+            // Totale stimato (vedere UserService.estimateCount)
+            pageResponse.withTotal(userService.estimateCount());
+        }
         return apiResponseBuilder.success(pageResponse, HttpStatus.OK);
     }
 
+    /**
+     * Directory utenti per il supporto: ricerca per prefisso di email o nome
+     * (opzionale), paginazione a cursore sull'id e conteggi dei todo.
+     */
+    @GetMapping("/directory")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SuccessResponse<CursorResponse<UserDirectoryResponse>>> directory(
+            @RequestParam(required = false) @Size(max = 100) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+
+        CursorResponse<UserDirectoryResponse> cursorResponse = userService.directory(q, cursor, limit);
+        return apiResponseBuilder.success(cursorResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Richieste di eliminazione degli account con il loro avanzamento, dalla
+     * più recente (le completate restano visibili per
+     * app.deletion.history-retention).
+     */
+    @GetMapping("/deletions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SuccessResponse<PageResponse<UserDeletionResponse>>> findDeletions(
+            @RequestParam(defaultValue = "1") @Min(1) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+
+        page = page - 1;
+        Slice<UserDeletionResponse> deletions = userDeletionService.findAll(page, limit);
+        return apiResponseBuilder.success(PageResponse.of(deletions), HttpStatus.OK);
+    }
+
     @GetMapping("/profile")
-    public ResponseEntity<SuccessResponse<UserResponse>> getProfile(@AuthenticationPrincipal JwtPayload jwtPayload) {
+    public ResponseEntity<SuccessResponse<UserResponse>> getProfile(@AuthenticationPrincipal JwtPayload jwtPayload,
+            ServletWebRequest request) {
+
+        // 304 senza caricare l'utente né passare da UserMapper
+        Long userId = jwtPayload.getUserId();
+        String etag = ConditionalGet.profile(userId, userService.profileVersion(userId));
+        if (ConditionalGet.checkNotModified(request, etag)) {
+            return null;
+        }
 
         User user = userService.findOne(jwtPayload.getEmail());
         UserResponse userResponse = userMapper.toDTO(user);
@@ -78,11 +130,15 @@ public class UserController {
         return apiResponseBuilder.success(response, HttpStatus.OK);
     }
 
+    /**
+     * Eliminazione asincrona: l'account viene disabilitato subito, i dati
+     * vengono eliminati in background (202 Accepted).
+     */
     @DeleteMapping()
     public ResponseEntity<SuccessResponse<Void>> delete(@AuthenticationPrincipal JwtPayload jwtPayload) {
 
         userService.delete(jwtPayload.getEmail());
-        return apiResponseBuilder.success(HttpStatus.OK);
+        return apiResponseBuilder.success(HttpStatus.ACCEPTED);
     }
 
 }
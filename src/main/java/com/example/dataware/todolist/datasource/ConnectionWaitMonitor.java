@@ -0,0 +1,131 @@
+package com.example.dataware.todolist.datasource;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Segnale di saturazione dei pool di connessioni (vedere
+ * WaitTrackingDataSource).
+ *
+ * - Un'attesa per una connessione oltre app.datasource.slow-acquire-threshold
+ * viene contata per pool e per call site: il primo metodo dell'applicazione
+ * nello stack (servizio, job o filtro che ha eseguito la prima query della
+ * transazione).
+ * - Al massimo una volta ogni app.datasource.saturation-report-interval, e
+ * solo se ci sono state attese lente, viene scritto un log con i call site
+ * che hanno atteso di più; i contatori ripartono da zero.
+ * - Metrica Micrometer: db.connections.slow{pool}, per gli alert. Le
+ * metriche del pool (hikaricp.connections.active, idle, pending, acquire)
+ * sono registrate da Hikari.
+ *
+ * Lo stack viene letto solo per le attese lente: nessun costo sulle
+ * acquisizioni normali.
+ */
+@Slf4j
+@Component
+public class ConnectionWaitMonitor {
+
+    private static final String APP_PACKAGE = "com.example.dataware.todolist.";
+    private static final String DATASOURCE_PACKAGE = APP_PACKAGE + "datasource.";
+    private static final int TOP_CALL_SITES = 5;
+
+    private final MeterRegistry meterRegistry;
+    private final long thresholdNanos;
+    private final long reportIntervalNanos;
+    private final Map<String, Counter> slowAcquires = new ConcurrentHashMap<>();
+    private final AtomicReference<Map<String, Wait>> waits = new AtomicReference<>(new ConcurrentHashMap<>());
+    private final AtomicLong lastReport = new AtomicLong(System.nanoTime());
+
+    private static final class Wait {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator((a, b) -> Math.max(a, b), 0);
+    }
+
+    public ConnectionWaitMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.slow-acquire-threshold}") Duration threshold,
+            @Value("${app.datasource.saturation-report-interval}") Duration reportInterval) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdNanos = threshold.toNanos();
+        this.reportIntervalNanos = reportInterval.toNanos();
+    }
+
+    /**
+     * Registra un'attesa per una connessione.
+     *
+     * @param pool      nome del pool (o del percorso di routing)
+     * @param waitNanos durata dell'attesa, anche se l'acquisizione è fallita
+     */
+    public void record(String pool, long waitNanos) {
+        if (waitNanos < thresholdNanos) {
+            return;
+        }
+
+        slowAcquires.computeIfAbsent(pool, p -> Counter.builder("db.connections.slow")
+                .tag("pool", p)
+                .register(meterRegistry))
+                .increment();
+
+        Wait wait = waits.get().computeIfAbsent(pool + " " + callSite(), key -> new Wait());
+        wait.count.increment();
+        wait.totalNanos.add(waitNanos);
+        wait.maxNanos.accumulate(waitNanos);
+
+        long now = System.nanoTime();
+        long last = lastReport.get();
+        if (now - last >= reportIntervalNanos && lastReport.compareAndSet(last, now)) {
+            report(waits.getAndSet(new ConcurrentHashMap<>()), now - last);
+        }
+    }
+
+    private void report(Map<String, Wait> snapshot, long elapsedNanos) {
+        long total = snapshot.values().stream()
+                .mapToLong(wait -> wait.count.sum())
+                .sum();
+
+        String top = snapshot.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, Wait> entry) -> entry.getValue().totalNanos.sum()).reversed())
+                .limit(TOP_CALL_SITES)
+                .map(entry -> String.format("%s (%d attese, max %d ms, totale %d ms)",
+                        entry.getKey(),
+                        entry.getValue().count.sum(),
+                        TimeUnit.NANOSECONDS.toMillis(entry.getValue().maxNanos.get()),
+                        TimeUnit.NANOSECONDS.toMillis(entry.getValue().totalNanos.sum())))
+                .collect(Collectors.joining("; "));
+
+        log.warn("Pool di connessioni saturo: {} attese oltre {} ms negli ultimi {} s. Call site principali: {}",
+                total, TimeUnit.NANOSECONDS.toMillis(thresholdNanos), TimeUnit.NANOSECONDS.toSeconds(elapsedNanos),
+                top);
+    }
+
+    // Primo frame dell'applicazione fuori da questo package (esclusi i proxy
+    // generati da Spring)
+    private String callSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().startsWith(DATASOURCE_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("sconosciuto"));
+    }
+
+}
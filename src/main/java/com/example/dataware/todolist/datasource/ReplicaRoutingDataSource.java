@@ -0,0 +1,197 @@
+package com.example.dataware.todolist.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.example.dataware.todolist.datasource.enums.ReplicaSelection;
+import com.example.dataware.todolist.service.ReadYourWritesService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DataSource delle transazioni in sola lettura (readOnlyDataSource di
+ * LazyConnectionDataSourceProxy, vedere DataSourceConfig).
+ *
+ * - Ogni connessione viene presa da una replica sana, scelta a turno
+ * (ROUND_ROBIN) o con meno connessioni in uso (LEAST_CONNECTIONS).
+ * - Una replica è sana se l'ultimo health check (checkHealth) è riuscito e il
+ * suo ritardo di replica non supera app.datasource.replica.max-lag. Fino al
+ * primo health check tutte le repliche sono escluse.
+ * - Si usa il primary se non ci sono repliche sane, se la connessione alla
+ * replica fallisce (la replica resta esclusa fino al prossimo health check
+ * riuscito) oppure se ReadYourWritesService richiede il primary (scrittura
+ * recente dell'utente, letture che devono vedere l'ultimo stato committato).
+ * - Metriche Micrometer: db.reads{target="primary|replica"} e
+ * db.replicas.healthy.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // Ritardo di replica in secondi: 0 se la replica ha applicato tutto il WAL
+    // ricevuto oppure se l'istanza non è in recovery (es. due istanze locali
+    // indipendenti usate per provare il routing)
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+            END
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaSelection selection;
+    private final double maxLagSeconds;
+    private final ReadYourWritesService readYourWritesService;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return dataSource.getPoolName();
+        }
+    }
+
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            List<HikariDataSource> replicas,
+            ReplicaSelection selection,
+            Duration maxLag,
+            ReadYourWritesService readYourWritesService,
+            MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream()
+                .map(dataSource -> new Replica(dataSource))
+                .toList();
+        this.selection = selection;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.readYourWritesService = readYourWritesService;
+        this.primaryReads = Counter.builder("db.reads")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        this.replicaReads = Counter.builder("db.reads")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        Gauge.builder("db.replicas.healthy", this.replicas,
+                list -> list.stream().filter(replica -> replica.healthy).count())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readYourWritesService.mustReadFromPrimary()) {
+            return primaryConnection();
+        }
+
+        Replica replica = select();
+        if (replica == null) {
+            return primaryConnection();
+        }
+
+        try {
+            Connection connection = replica.dataSource.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            updateHealth(replica, false, e.getMessage());
+            return primaryConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credenziali per connessione non supportate");
+    }
+
+    /**
+     * Aggiorna lo stato delle repliche (connessione e ritardo di replica).
+     * Eseguito periodicamente da ReplicaHealthCheckJob.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                double lagSeconds = resultSet.getDouble(1);
+
+                // Nessuna transazione ancora replicata: ritardo sconosciuto
+                if (resultSet.wasNull()) {
+                    updateHealth(replica, false, "ritardo di replica sconosciuto");
+                } else {
+                    updateHealth(replica, lagSeconds <= maxLagSeconds, "ritardo di replica " + lagSeconds + "s");
+                }
+            } catch (SQLException e) {
+                updateHealth(replica, false, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    private Replica select() {
+        List<Replica> healthy = replicas.stream()
+                .filter(replica -> replica.healthy)
+                .toList();
+        if (healthy.isEmpty()) {
+            return null;
+        }
+
+        if (selection == ReplicaSelection.LEAST_CONNECTIONS) {
+            return healthy.stream()
+                    .min(Comparator.comparingInt(replica -> activeConnections(replica)))
+                    .orElseThrow();
+        }
+
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    private int activeConnections(Replica replica) {
+        HikariPoolMXBean pool = replica.dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    private void updateHealth(Replica replica, boolean healthy, String reason) {
+        if (replica.healthy != healthy) {
+            if (healthy) {
+                log.info("Replica {} di nuovo disponibile per le letture ({})", replica.name(), reason);
+            } else {
+                log.warn("Replica {} esclusa dalle letture: {}", replica.name(), reason);
+            }
+        }
+        replica.healthy = healthy;
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.example.dataware.todolist.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Misura l'attesa di ogni acquisizione di connessione dal DataSource
+ * sottostante e la passa a ConnectionWaitMonitor (attese fallite per timeout
+ * comprese).
+ */
+public class WaitTrackingDataSource extends DelegatingDataSource {
+
+    private final String pool;
+    private final ConnectionWaitMonitor connectionWaitMonitor;
+
+    public WaitTrackingDataSource(DataSource targetDataSource, String pool,
+            ConnectionWaitMonitor connectionWaitMonitor) {
+        super(targetDataSource);
+        this.pool = pool;
+        this.connectionWaitMonitor = connectionWaitMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            connectionWaitMonitor.record(pool, System.nanoTime() - start);
+        }
+    }
+
+}
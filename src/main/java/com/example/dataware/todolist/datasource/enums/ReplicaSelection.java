@@ -0,0 +1,14 @@
+package com.example.dataware.todolist.datasource.enums;
+
+/**
+ * Criterio di scelta della replica per una transazione in sola lettura
+ * (app.datasource.replica.selection).
+ */
+public enum ReplicaSelection {
+
+    // A turno tra le repliche sane
+    ROUND_ROBIN,
+    // La replica sana con meno connessioni in uso nel pool
+    LEAST_CONNECTIONS
+
+}
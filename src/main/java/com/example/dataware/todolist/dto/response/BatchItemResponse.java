@@ -0,0 +1,54 @@
+package com.example.dataware.todolist.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Esito di un singolo elemento di una richiesta batch.
+ * index corrisponde alla posizione dell'elemento nella richiesta.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResponse<T> {
+    private int index;
+    private Long id;
+    private int statusCode;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL) // Non serializza il campo se è null
+    private T data;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL) // Non serializza il campo se è null
+    private String error;
+
+    public static <T> BatchItemResponse<T> success(int index, Long id, int statusCode, T data) {
+        return BatchItemResponse.<T>builder()
+                .index(index)
+                .id(id)
+                .statusCode(statusCode)
+                .data(data)
+                .build();
+    }
+
+    public static <T> BatchItemResponse<T> failure(int index, Long id, int statusCode, String error) {
+        return BatchItemResponse.<T>builder()
+                .index(index)
+                .id(id)
+                .statusCode(statusCode)
+                .error(error)
+                .build();
+    }
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
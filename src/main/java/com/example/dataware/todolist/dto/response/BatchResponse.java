@@ -0,0 +1,39 @@
+package com.example.dataware.todolist.dto.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO per le risposte degli endpoint batch: esito per ogni elemento più i
+ * totali di successi e fallimenti.
+ */
+@JsonPropertyOrder({ "succeeded", "failed", "results" })
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse<T> {
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResponse<T>> results;
+
+    /**
+     * Factory method per creare un BatchResponse calcolando i totali.
+     */
+    public static <T> BatchResponse<T> of(List<BatchItemResponse<T>> results) {
+        int succeeded = (int) results.stream().filter(result -> result.isSuccess()).count();
+        return BatchResponse.<T>builder()
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+}
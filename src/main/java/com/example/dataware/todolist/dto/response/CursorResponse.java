@@ -0,0 +1,40 @@
+package com.example.dataware.todolist.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO per la paginazione a cursore (keyset).
+ * A differenza di PageResponse non espone totalElements/totalPages:
+ * non viene eseguita nessuna COUNT(*) e la pagina successiva si ottiene
+ * passando nextCursor come parametro cursor.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorResponse<T> {
+    private List<T> content;
+    private int limit;
+    private String nextCursor;
+    private boolean hasNext;
+
+    /**
+     * Factory method per creare un CursorResponse.
+     * nextCursor è null quando non esistono altri elementi.
+     */
+    public static <T> CursorResponse<T> of(List<T> content, int limit, String nextCursor) {
+        return CursorResponse.<T>builder()
+                .content(content)
+                .limit(limit)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .build();
+    }
+}
@@ -3,6 +3,9 @@ package com.example.dataware.todolist.dto.response;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.Builder;
 import lombok.Getter;
@@ -13,6 +16,10 @@ import lombok.AllArgsConstructor;
 /**
  * DTO per la paginazione che fornisce una struttura JSON stabile.
  * Evita il warning di Spring Data sulla serializzazione di PageImpl.
+ * 
+ * totalElements e totalPages sono presenti solo se il totale è stato
+ * calcolato (withTotal=true), altrimenti la risposta indica solo se esiste
+ * una pagina successiva.
  */
 @Builder
 @Getter
@@ -23,8 +30,10 @@ public class PageResponse<T> {
     private List<T> content;
     private int currentPage;
     private int limit;
-    private long totalElements;
-    private int totalPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL) // Non serializza il campo se è null
+    private Long totalElements;
+    @JsonInclude(JsonInclude.Include.NON_NULL) // Non serializza il campo se è null
+    private Integer totalPages;
     private boolean first;
     private boolean last;
     private boolean hasNext;
@@ -48,4 +57,29 @@ public class PageResponse<T> {
                 .hasPrevious(page.hasPrevious())
                 .build();
     }
+
+    /**
+     * Factory method per creare un PageResponse da uno Slice di Spring Data
+     * (senza COUNT: totalElements e totalPages restano null).
+     */
+    public static <T> PageResponse<T> of(Slice<T> slice) {
+        return PageResponse.<T>builder()
+                .content(slice.getContent())
+                .currentPage(slice.getNumber() + 1) // Converte da 0-based a 1-based per l'API
+                .limit(slice.getSize())
+                .first(slice.isFirst())
+                .last(slice.isLast())
+                .hasNext(slice.hasNext())
+                .hasPrevious(slice.hasPrevious())
+                .build();
+    }
+
+    /**
+     * Imposta il totale (esatto o stimato) su una pagina creata da uno Slice.
+     */
+    public PageResponse<T> withTotal(long totalElements) {
+        this.totalElements = totalElements;
+        this.totalPages = (int) Math.ceil((double) totalElements / limit);
+        return this;
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.dataware.todolist.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoChangesResponse {
+    // Todo creati o modificati (stato corrente), in ordine di modifica
+    private List<TodoResponse> changed;
+    // Id dei todo eliminati
+    private List<Long> deleted;
+    // Token da passare come since alla richiesta successiva
+    private long nextToken;
+    private boolean hasMore;
+
+}
@@ -0,0 +1,20 @@
+package com.example.dataware.todolist.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoEventResponse {
+    // Vuoto se le modifiche sono troppe: il client usa GET /todos/changes
+    private List<Long> ids;
+
+}
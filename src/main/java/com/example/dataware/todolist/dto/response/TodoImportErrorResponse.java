@@ -0,0 +1,18 @@
+package com.example.dataware.todolist.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportErrorResponse {
+    private long line;
+    private String error;
+
+}
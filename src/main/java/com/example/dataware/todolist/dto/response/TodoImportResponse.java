@@ -0,0 +1,23 @@
+package com.example.dataware.todolist.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportResponse {
+    private long accepted;
+    private long rejected;
+    // Solo le prime righe scartate (errorsTruncated = true se ce ne sono altre)
+    private List<TodoImportErrorResponse> errors;
+    private boolean errorsTruncated;
+
+}
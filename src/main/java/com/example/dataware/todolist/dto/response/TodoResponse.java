@@ -19,5 +19,11 @@ public class TodoResponse {
     private Boolean completed;
     private Instant createdAt;
     private Instant updatedAt;
+    private Long version;
+
+    /**
+     * true per un todo archiviato (incluso solo con includeArchived=true).
+     */
+    private Boolean archived;
 
 }
@@ -0,0 +1,27 @@
+package com.example.dataware.todolist.dto.response;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Statistiche dei todo dell'utente.
+ * date è il giorno (UTC) a cui si riferiscono createdToday e completedToday.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoStatsResponse {
+    private long total;
+    private long completed;
+    private long open;
+    private long createdToday;
+    private long completedToday;
+    private LocalDate date;
+}
@@ -0,0 +1,28 @@
+package com.example.dataware.todolist.dto.response;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDeletionResponse {
+    private Long userId;
+    private String email;
+    private boolean completed;
+    private Instant requestedAt;
+    private Instant completedAt;
+    private long todosDeleted;
+    // Todo ancora da eliminare (dalle statistiche per utente), null se completata
+    private Long todosRemaining;
+    private boolean filesDeleted;
+    private int attempts;
+    private String lastError;
+}
@@ -0,0 +1,32 @@
+package com.example.dataware.todolist.dto.response;
+
+import java.time.Instant;
+
+import com.example.dataware.todolist.entity.enums.Role;
+import com.example.dataware.todolist.entity.enums.UserStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Voce della directory utenti (proiezione JPQL, vedere
+ * UserRepository.findDirectory): i conteggi dei todo arrivano da todo_stats.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDirectoryResponse {
+    private Long id;
+    private String nome;
+    private String email;
+    private Role role;
+    private UserStatus status;
+    private Instant createdAt;
+    private Long todosTotal;
+    private Long todosCompleted;
+}
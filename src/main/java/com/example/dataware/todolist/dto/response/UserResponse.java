@@ -20,6 +20,7 @@ public class UserResponse {
     private String email;
     private String profileImageUrl;
     private String role;
+    private String status;
     private Instant createdAt;
     private Instant updatedAt;
 }
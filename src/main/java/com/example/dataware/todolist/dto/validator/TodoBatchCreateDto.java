@@ -0,0 +1,30 @@
+package com.example.dataware.todolist.dto.validator;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchCreateDto {
+
+    /**
+     * Todo da creare in un'unica transazione.
+     * Ogni elemento viene validato con le regole di TodoDto
+     * (es. todos[3].title nella risposta di errore).
+     */
+    @NotEmpty(message = "La lista dei todo è obbligatoria")
+    @Size(max = 500, message = "Si possono creare al massimo 500 todo per richiesta")
+    @Valid
+    private List<TodoDto> todos;
+}
@@ -0,0 +1,25 @@
+package com.example.dataware.todolist.dto.validator;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchDeleteDto {
+
+    @NotEmpty(message = "La lista degli id è obbligatoria")
+    @Size(max = 500, message = "Si possono eliminare al massimo 500 todo per richiesta")
+    private List<@NotNull @Positive Long> ids;
+}
@@ -0,0 +1,25 @@
+package com.example.dataware.todolist.dto.validator;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchUpdateDto {
+
+    @NotEmpty(message = "La lista dei todo è obbligatoria")
+    @Size(max = 500, message = "Si possono aggiornare al massimo 500 todo per richiesta")
+    @Valid
+    private List<TodoBatchUpdateItemDto> todos;
+}
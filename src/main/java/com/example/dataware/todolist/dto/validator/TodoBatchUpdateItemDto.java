@@ -0,0 +1,34 @@
+package com.example.dataware.todolist.dto.validator;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class TodoBatchUpdateItemDto {
+
+    @NotNull(message = "L'id del todo è obbligatorio")
+    @Positive(message = "L'id del todo deve essere positivo")
+    private Long id;
+
+    /**
+     * Titolo del todo (opzionale), stesse regole di TodoUpdateDto
+     */
+    @Pattern(regexp = ".*\\S.*", message = "Il titolo non può essere vuoto o solo spazi")
+    @Size(min = 4, message = "Il titolo deve avere almeno 4 caratteri")
+    private String title;
+
+    private Boolean completed;
+}
@@ -0,0 +1,23 @@
+package com.example.dataware.todolist.dto.validator;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoMarkAllDto {
+
+    /**
+     * Stato da applicare ai todo dell'utente che corrispondono ai filtri della
+     * richiesta (vengono aggiornati solo quelli con stato diverso).
+     */
+    @NotNull(message = "Il campo completed è obbligatorio")
+    private Boolean completed;
+}
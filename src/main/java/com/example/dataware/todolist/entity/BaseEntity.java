@@ -22,8 +22,17 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 public abstract class BaseEntity {
 
+    /**
+     * Id generato da una sequence per entità (todos_seq, users_seq) con
+     * optimizer pooled: Hibernate riserva blocchi di id con una sola nextval()
+     * e può quindi raggruppare gli INSERT in batch JDBC (con IDENTITY ogni
+     * INSERT deve essere eseguito subito per leggere la chiave generata).
+     * La dimensione del blocco è l'INCREMENT BY della sequence, configurato
+     * dalla proprietà app.id.allocation-size (vedere R__id_sequence_increment.sql)
+     * e letto all'avvio grazie a increment_size_mismatch_strategy=FIX.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @CreationTimestamp
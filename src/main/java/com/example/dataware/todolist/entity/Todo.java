@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -31,6 +32,26 @@ public class Todo extends BaseEntity {
     @Column(nullable = false)
     private boolean completed;
 
+    /**
+     * Numero di modifica assegnato dal DB a ogni INSERT/UPDATE (vedere
+     * V6__todo_change_tracking.sql): mai scritto dall'applicazione, il valore
+     * nell'entità può non essere aggiornato.
+     */
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
+    /**
+     * Versione per il locking ottimistico: Hibernate la incrementa a ogni
+     * UPDATE e la verifica nella WHERE, una modifica concorrente fa fallire
+     * il flush (OptimisticLockingFailureException, 409 Conflict). Le UPDATE
+     * native devono incrementarla esplicitamente (version = version + 1).
+     * Solo i todo sono versionati: le scritture su User (refresh token,
+     * profilo) restano last-write-wins.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
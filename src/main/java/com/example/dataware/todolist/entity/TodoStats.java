@@ -0,0 +1,50 @@
+package com.example.dataware.todolist.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistiche dei todo di un utente, mantenute dai trigger su todos
+ * (vedere V4__todo_stats.sql): l'entità è in sola lettura.
+ * 
+ * createdToday e completedToday si riferiscono a statsDate (giorno UTC):
+ * se statsDate non è oggi valgono 0.
+ */
+@Entity
+@Table(name = "todo_stats")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class TodoStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(name = "created_today", nullable = false)
+    private long createdToday;
+
+    @Column(name = "completed_today", nullable = false)
+    private long completedToday;
+
+    @Column(name = "stats_date", nullable = false)
+    private LocalDate statsDate;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.example.dataware.todolist.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Todo eliminato, registrato dal trigger di cancellazione su todos (vedere
+ * V6__todo_change_tracking.sql) per la sincronizzazione incrementale dei
+ * client: l'entità è in sola lettura.
+ */
+@Entity
+@Table(name = "todo_tombstones")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class TodoTombstone {
+
+    @Id
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "todo_id", nullable = false)
+    private Long todoId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+}
@@ -0,0 +1,52 @@
+package com.example.dataware.todolist.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Todo attivo oppure archiviato, letto dalla vista todos_all (vedere
+ * V11__todo_archive.sql) per le letture con includeArchived=true: l'entità è
+ * in sola lettura.
+ */
+@Entity
+@Table(name = "todos_all")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class TodoView {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * true se il todo è in todos_archive.
+     */
+    @Column(nullable = false)
+    private boolean archived;
+}
@@ -3,9 +3,16 @@ package com.example.dataware.todolist.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import com.example.dataware.todolist.config.HibernateCacheConfig;
 import com.example.dataware.todolist.entity.enums.Role;
+import com.example.dataware.todolist.entity.enums.UserStatus;
 
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -20,8 +27,19 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
+/**
+ * L'utente viene letto a ogni richiesta autenticata per email (profilo):
+ * entità e risoluzione email → id sono nella cache di secondo livello (vedere
+ * HibernateCacheConfig). Le scritture tramite il persistence context
+ * aggiornano la cache di questa istanza, UserCacheService invalida quella
+ * delle altre. Refresh token e stato per login, refresh e logout sono letti
+ * dal DB (UserRepository.findCurrentByEmail).
+ */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USER_REGION)
+@NaturalIdCache(region = HibernateCacheConfig.USER_NATURAL_ID_REGION)
 @SuperBuilder
 @Getter
 @Setter
@@ -31,6 +49,8 @@ public class User extends BaseEntity {
     @Column(nullable = false)
     private String nome;
 
+    // Immutabile: nessun endpoint modifica l'email di un utente
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -47,14 +67,30 @@ public class User extends BaseEntity {
     @Column(name = "refresh_token", length = 500)
     private String refreshToken;
 
-    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    /**
+     * ACTIVE, oppure DELETING dopo DELETE /users: login e refresh vengono
+     * rifiutati e UserDeletionJob elimina i dati dell'utente in background.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private UserStatus status;
+
+    /**
+     * Nessun cascade: i todo di un account eliminato vengono cancellati a
+     * blocchi da UserDeletionJob con DELETE set-based, senza caricarli nel
+     * persistence context.
+     */
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     @Builder.Default
     private List<Todo> todos = new ArrayList<>();
 
-    @PrePersist // Imposta il ruolo USER di default prima di salvare l'entità nel DB
+    @PrePersist // Imposta il ruolo USER e lo stato ACTIVE di default prima di salvare l'entità nel DB
     public void prePersist() {
         if (this.role == null) {
             this.role = Role.USER;
         }
+        if (this.status == null) {
+            this.status = UserStatus.ACTIVE;
+        }
     }
 }
@@ -0,0 +1,47 @@
+package com.example.dataware.todolist.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Richiesta di eliminazione di un account e relativo avanzamento (vedere
+ * V9__async_account_deletion.sql): scritta solo tramite le query di
+ * UserDeletionRepository, mai tramite save().
+ */
+@Entity
+@Table(name = "user_deletions")
+@Getter
+@NoArgsConstructor
+public class UserDeletion {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "requested_at", nullable = false)
+    private Instant requestedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "todos_deleted", nullable = false)
+    private long todosDeleted;
+
+    @Column(name = "files_deleted", nullable = false)
+    private boolean filesDeleted;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
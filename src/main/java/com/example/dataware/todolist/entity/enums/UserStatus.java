@@ -0,0 +1,6 @@
+package com.example.dataware.todolist.entity.enums;
+
+public enum UserStatus {
+    ACTIVE,
+    DELETING
+}
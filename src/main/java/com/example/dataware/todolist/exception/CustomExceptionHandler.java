@@ -10,10 +10,15 @@ import com.example.dataware.todolist.exception.custom.BaseCustomException;
 import com.example.dataware.todolist.exception.custom.EmailConflictException;
 import com.example.dataware.todolist.exception.custom.EmptyFileException;
 import com.example.dataware.todolist.exception.custom.InvalidCredentialsException;
+import com.example.dataware.todolist.exception.custom.InvalidCursorException;
 import com.example.dataware.todolist.exception.custom.InvalidFileTypeException;
+import com.example.dataware.todolist.exception.custom.InvalidIfMatchException;
+import com.example.dataware.todolist.exception.custom.InvalidImportFileException;
 import com.example.dataware.todolist.exception.custom.InvalidSortablePropertyException;
 import com.example.dataware.todolist.exception.custom.S3UploadException;
+import com.example.dataware.todolist.exception.custom.SyncTokenExpiredException;
 import com.example.dataware.todolist.exception.custom.TodoNotFoundException;
+import com.example.dataware.todolist.exception.custom.TodoVersionMismatchException;
 import com.example.dataware.todolist.exception.custom.UserNotFoundException;
 
 import lombok.extern.slf4j.Slf4j;
@@ -95,6 +100,76 @@ public class CustomExceptionHandler {
         return handleException(ex);
     }
 
+    /**
+     * Gestisce le eccezioni InvalidCursorException lanciate
+     * dall'applicazione.
+     * Restituisce una risposta JSON pulita senza stack trace.
+     * 
+     * @param ex l'eccezione InvalidCursorException
+     * @return ResponseEntity con la risposta di errore formattata
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(
+            InvalidCursorException ex) {
+        return handleException(ex);
+    }
+
+    /**
+     * Gestisce le eccezioni InvalidImportFileException lanciate
+     * dall'applicazione.
+     * Restituisce una risposta JSON pulita senza stack trace.
+     * 
+     * @param ex l'eccezione InvalidImportFileException
+     * @return ResponseEntity con la risposta di errore formattata
+     */
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportFileException(
+            InvalidImportFileException ex) {
+        return handleException(ex);
+    }
+
+    /**
+     * Gestisce le eccezioni SyncTokenExpiredException lanciate
+     * dall'applicazione.
+     * Restituisce una risposta JSON pulita senza stack trace.
+     * 
+     * @param ex l'eccezione SyncTokenExpiredException
+     * @return ResponseEntity con la risposta di errore formattata
+     */
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleSyncTokenExpiredException(
+            SyncTokenExpiredException ex) {
+        return handleException(ex);
+    }
+
+    /**
+     * Gestisce le eccezioni TodoVersionMismatchException lanciate
+     * dall'applicazione.
+     * Restituisce una risposta JSON pulita senza stack trace.
+     * 
+     * @param ex l'eccezione TodoVersionMismatchException
+     * @return ResponseEntity con la risposta di errore formattata
+     */
+    @ExceptionHandler(TodoVersionMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTodoVersionMismatchException(
+            TodoVersionMismatchException ex) {
+        return handleException(ex);
+    }
+
+    /**
+     * Gestisce le eccezioni InvalidIfMatchException lanciate
+     * dall'applicazione.
+     * Restituisce una risposta JSON pulita senza stack trace.
+     * 
+     * @param ex l'eccezione InvalidIfMatchException
+     * @return ResponseEntity con la risposta di errore formattata
+     */
+    @ExceptionHandler(InvalidIfMatchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidIfMatchException(
+            InvalidIfMatchException ex) {
+        return handleException(ex);
+    }
+
     /**
      * Gestisce le eccezioni EmptyFileException lanciate
      * dall'applicazione.
@@ -6,6 +6,7 @@ import java.util.Map;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -133,6 +134,24 @@ public class GlobalExceptionHandler {
                                 "Accesso negato. Non hai i permessi necessari per eseguire questa operazione.");
         }
 
+        /**
+         * Gestisce i conflitti del locking ottimistico (@Version): la riga è
+         * stata modificata da un'altra transazione dopo la lettura.
+         * Restituisce una risposta di errore con stato 409 Conflict.
+         * 
+         * @param ex l'eccezione OptimisticLockingFailureException
+         * @return ResponseEntity con la risposta di errore formattata
+         */
+        @ExceptionHandler(OptimisticLockingFailureException.class)
+        public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(
+                        OptimisticLockingFailureException ex) {
+                int statusCode = HttpStatus.CONFLICT.value();
+                String reasonPhrase = HttpStatus.CONFLICT.getReasonPhrase();
+
+                return handleException(ex, statusCode, reasonPhrase,
+                                "La risorsa è stata modificata da un'altra richiesta. Ricarica i dati e riprova.");
+        }
+
         /**
          * Gestisce le eccezioni MultipartException lanciate
          * dall'applicazione.
@@ -0,0 +1,16 @@
+package com.example.dataware.todolist.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidImportFileException extends RuntimeException implements BaseCustomException {
+    private final int statusCode = HttpStatus.BAD_REQUEST.value();
+    private final String errorReasonPhrase = HttpStatus.BAD_REQUEST.getReasonPhrase();
+
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+
+}
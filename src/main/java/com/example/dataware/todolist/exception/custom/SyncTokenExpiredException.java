@@ -0,0 +1,16 @@
+package com.example.dataware.todolist.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+@Getter
+public class SyncTokenExpiredException extends RuntimeException implements BaseCustomException {
+    private final int statusCode = HttpStatus.GONE.value();
+    private final String errorReasonPhrase = HttpStatus.GONE.getReasonPhrase();
+
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.dataware.todolist.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+@Getter
+public class TodoVersionMismatchException extends RuntimeException implements BaseCustomException {
+    private final int statusCode = HttpStatus.PRECONDITION_FAILED.value();
+    private final String errorReasonPhrase = HttpStatus.PRECONDITION_FAILED.getReasonPhrase();
+
+    public TodoVersionMismatchException(String message) {
+        super(message);
+    }
+
+}
@@ -11,12 +11,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.entity.enums.UserStatus;
 import com.example.dataware.todolist.exception.ErrorResponse;
 import com.example.dataware.todolist.filter.jwt.enums.TokenType;
 import com.example.dataware.todolist.filter.jwt.payload.JwtPayload;
 import com.example.dataware.todolist.filter.jwt.service.JwtService;
 import com.example.dataware.todolist.repository.UserRepository;
 import com.example.dataware.todolist.service.EncryptionService;
+import com.example.dataware.todolist.service.ReadYourWritesService;
 
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
@@ -37,6 +39,7 @@ public class JwtRefreshFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserRepository userRepository;
     private final EncryptionService encryptionService;
+    private final ReadYourWritesService readYourWritesService;
     private final ObjectMapper objectMapper;
 
     /**
@@ -66,8 +69,12 @@ public class JwtRefreshFilter extends OncePerRequestFilter {
                 Long userId = jwtService.extractUserId(token, TokenType.REFRESH);
                 String email = jwtService.extractEmail(token, TokenType.REFRESH);
 
-                // 2. Recupera utente e valida refresh token
-                User user = userRepository.findByEmail(email)
+                // 2. Recupera utente e valida refresh token e stato dal primary,
+                // senza cache di secondo livello: il token appena ruotato (o
+                // revocato da logout o eliminazione dell'account, anche su
+                // un'altra istanza) potrebbe non essere ancora sulle repliche
+                // né nella cache di questa istanza
+                User user = readYourWritesService.onPrimary(() -> userRepository.findCurrentByEmail(email))
                         .orElseThrow(() -> new JwtException("User not found"));
 
                 validateStoredRefreshToken(user, token);
@@ -145,6 +152,10 @@ public class JwtRefreshFilter extends OncePerRequestFilter {
     }
 
     private void validateStoredRefreshToken(User user, String token) {
+        if (user.getStatus() == UserStatus.DELETING) {
+            throw new JwtException("User is being deleted");
+        }
+
         String encryptedStoredToken = user.getRefreshToken();
 
         if (encryptedStoredToken == null || encryptedStoredToken.isEmpty()) {
@@ -18,7 +18,8 @@ public enum RateLimitEndpoint {
     LOGOUT(HttpMethod.DELETE, "/auth/logout", 4, 60),
     REFRESH_TOKEN(HttpMethod.POST, "/auth/refresh-token", 4, 60),
     UPLOAD_IMAGE(HttpMethod.POST, "/users/profile/image", 2, 60),
-    DELETE_IMAGE(HttpMethod.DELETE, "/users/profile/image", 2, 60);
+    DELETE_IMAGE(HttpMethod.DELETE, "/users/profile/image", 2, 60),
+    IMPORT_TODOS(HttpMethod.POST, "/todos/import", 2, 60);
 
     private final HttpMethod method;
     private final String path;
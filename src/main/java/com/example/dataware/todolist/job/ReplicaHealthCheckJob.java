@@ -0,0 +1,30 @@
+package com.example.dataware.todolist.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.dataware.todolist.datasource.ReplicaRoutingDataSource;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controlla periodicamente le repliche in lettura
+ * (app.datasource.replica.health-check-interval): una replica irraggiungibile
+ * o con ritardo di replica oltre app.datasource.replica.max-lag viene esclusa
+ * dalle letture finché un controllo successivo non riesce.
+ *
+ * Ogni istanza controlla le proprie connessioni: il job gira su tutte le
+ * istanze.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReplicaHealthCheckJob {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval}")
+    public void run() {
+        replicaRoutingDataSource.checkHealth();
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.example.dataware.todolist.job;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.dataware.todolist.service.JobLockService;
+import com.example.dataware.todolist.service.interfaces.TodoService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sposta in todos_archive i todo completati da più di app.archive.after
+ * (vedere V11__todo_archive.sql): la tabella todos e i suoi indici contengono
+ * solo i todo ancora letti dalle liste.
+ * 
+ * I todo vengono spostati a blocchi di app.archive.batch-size, ognuno in una
+ * transazione breve. Ogni esecuzione dura al massimo TIME_BUDGET (lo
+ * scheduler è condiviso con gli altri job): un arretrato grande, ad esempio
+ * alla prima esecuzione, viene smaltito nelle esecuzioni successive.
+ * 
+ * Una sola istanza alla volta esegue il job (JobLockService): le altre
+ * saltano l'esecuzione invece di contendersi le stesse righe. Il job resta
+ * comunque idempotente: anche senza il lock i blocchi non si sovrappongono
+ * (FOR UPDATE SKIP LOCKED).
+ */
+@Slf4j
+@Component
+public class TodoArchiveJob {
+
+    private static final String JOB_NAME = "todo-archive";
+    private static final Duration TIME_BUDGET = Duration.ofMinutes(5);
+
+    private final TodoService todoService;
+    private final JobLockService jobLockService;
+    private final Duration after;
+    private final int batchSize;
+
+    public TodoArchiveJob(TodoService todoService, JobLockService jobLockService,
+            @Value("${app.archive.after}") Duration after,
+            @Value("${app.archive.batch-size}") int batchSize) {
+        this.todoService = todoService;
+        this.jobLockService = jobLockService;
+        this.after = after;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${app.archive.cron}", zone = "UTC")
+    public void archive() {
+        jobLockService.runExclusively(JOB_NAME, () -> archiveCompleted());
+    }
+
+    private void archiveCompleted() {
+        Instant before = Instant.now().minus(after);
+        Instant deadline = Instant.now().plus(TIME_BUDGET);
+        long archived = 0;
+        int batch;
+
+        do {
+            batch = todoService.archiveCompleted(before, batchSize);
+            archived += batch;
+        } while (batch == batchSize && Instant.now().isBefore(deadline));
+
+        log.info("Archiviazione todo: {} archiviati (completati prima di {})", archived, before);
+    }
+
+}
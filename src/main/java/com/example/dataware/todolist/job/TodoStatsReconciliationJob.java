@@ -0,0 +1,56 @@
+package com.example.dataware.todolist.job;
+
+import java.util.List;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.service.interfaces.TodoStatsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ricalcola periodicamente le statistiche dei todo (todo_stats) a partire
+ * dalla tabella todos e corregge le righe divergenti (es: modifiche manuali
+ * al DB, trigger disabilitati durante una manutenzione).
+ * 
+ * Gli utenti vengono elaborati a blocchi di BATCH_SIZE, ognuno in una
+ * transazione breve. Il job è idempotente: se gira su più istanze
+ * contemporaneamente il risultato non cambia.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoStatsReconciliationJob {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final TodoStatsService todoStatsService;
+
+    @Scheduled(cron = "${app.stats.reconcile-cron}", zone = "UTC")
+    public void reconcile() {
+        long afterId = 0;
+        int repaired = 0;
+        List<Long> userIds;
+
+        do {
+            userIds = userRepository.findIdsAfter(afterId, BATCH_SIZE);
+            if (userIds.isEmpty()) {
+                break;
+            }
+
+            repaired += todoStatsService.reconcile(userIds);
+            afterId = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == BATCH_SIZE);
+
+        if (repaired > 0) {
+            log.warn("Riconciliazione statistiche todo: {} utenti corretti", repaired);
+        } else {
+            log.info("Riconciliazione statistiche todo: nessuna divergenza");
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.example.dataware.todolist.job;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.dataware.todolist.service.interfaces.TodoService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Elimina periodicamente le tombstone dei todo più vecchie della finestra di
+ * retention (app.sync.tombstone-retention). I token di sincronizzazione
+ * precedenti all'ultima tombstone eliminata ricevono 410 Gone.
+ * 
+ * Le tombstone vengono eliminate a blocchi di BATCH_SIZE, ognuno in una
+ * transazione breve. Il job è idempotente: se gira su più istanze
+ * contemporaneamente il risultato non cambia.
+ */
+@Slf4j
+@Component
+public class TodoTombstonePurgeJob {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final TodoService todoService;
+    private final Duration retention;
+
+    public TodoTombstonePurgeJob(TodoService todoService,
+            @Value("${app.sync.tombstone-retention}") Duration retention) {
+        this.todoService = todoService;
+        this.retention = retention;
+    }
+
+    @Scheduled(cron = "${app.sync.purge-cron}", zone = "UTC")
+    public void purge() {
+        Instant before = Instant.now().minus(retention);
+        long purged = 0;
+        long batch;
+
+        do {
+            batch = todoService.purgeTombstones(before, BATCH_SIZE);
+            purged += batch;
+        } while (batch == BATCH_SIZE);
+
+        log.info("Pulizia tombstone todo: {} eliminate (precedenti a {})", purged, before);
+    }
+
+}
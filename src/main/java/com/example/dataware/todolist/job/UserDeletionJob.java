@@ -0,0 +1,94 @@
+package com.example.dataware.todolist.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.dataware.todolist.service.interfaces.UserDeletionService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Completa in background le eliminazioni degli account richieste con
+ * DELETE /users (utenti in stato DELETING): per ogni richiesta elimina i todo
+ * a blocchi di app.deletion.batch-size, ognuno in una transazione breve, poi
+ * i file su S3 e infine la riga di users.
+ * 
+ * Ogni esecuzione dura al massimo TIME_BUDGET (lo scheduler è condiviso con
+ * gli altri job): un account molto grande viene completato nelle esecuzioni
+ * successive, riprendendo dai todo rimasti. Un errore viene registrato sulla
+ * richiesta (attempts, lastError) e la richiesta viene ripresa al giro
+ * successivo.
+ * 
+ * Il job è idempotente: se gira su più istanze contemporaneamente il
+ * risultato non cambia.
+ */
+@Slf4j
+@Component
+public class UserDeletionJob {
+
+    private static final int MAX_REQUESTS = 100;
+    private static final Duration TIME_BUDGET = Duration.ofSeconds(30);
+
+    private final UserDeletionService userDeletionService;
+    private final int batchSize;
+    private final Duration historyRetention;
+
+    public UserDeletionJob(UserDeletionService userDeletionService,
+            @Value("${app.deletion.batch-size}") int batchSize,
+            @Value("${app.deletion.history-retention}") Duration historyRetention) {
+        this.userDeletionService = userDeletionService;
+        this.batchSize = batchSize;
+        this.historyRetention = historyRetention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.deletion.poll-interval}")
+    public void run() {
+        Instant deadline = Instant.now().plus(TIME_BUDGET);
+
+        List<Long> userIds = userDeletionService.findPending(MAX_REQUESTS);
+        for (Long userId : userIds) {
+            if (Instant.now().isAfter(deadline)) {
+                break;
+            }
+
+            try {
+                if (process(userId, deadline)) {
+                    log.info("Eliminazione account completata (userId: {})", userId);
+                }
+            } catch (RuntimeException e) {
+                log.error("Eliminazione account fallita (userId: {}): {}", userId, e.getMessage(), e);
+                userDeletionService.recordFailure(userId, e.getMessage());
+            }
+        }
+
+        int purged = userDeletionService.purgeHistory(Instant.now().minus(historyRetention));
+        if (purged > 0) {
+            log.info("Storico eliminazioni account: {} richieste completate rimosse", purged);
+        }
+    }
+
+    /**
+     * @return true se l'eliminazione è stata completata, false se il tempo a
+     *         disposizione è finito prima
+     */
+    private boolean process(Long userId, Instant deadline) {
+        int deleted;
+        do {
+            if (Instant.now().isAfter(deadline)) {
+                return false;
+            }
+            deleted = userDeletionService.purgeTodos(userId, batchSize);
+        } while (deleted == batchSize);
+
+        // S3 fuori da qualsiasi transazione, poi l'avanzamento in una breve
+        userDeletionService.deleteFiles(userId);
+        userDeletionService.markFilesDeleted(userId);
+        return userDeletionService.complete(userId);
+    }
+
+}
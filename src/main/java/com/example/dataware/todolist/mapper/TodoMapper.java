@@ -1,6 +1,7 @@
 package com.example.dataware.todolist.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import com.example.dataware.todolist.dto.response.TodoResponse;
 import com.example.dataware.todolist.entity.Todo;
@@ -12,6 +13,8 @@ import com.example.dataware.todolist.entity.Todo;
 @Mapper(componentModel = "spring")
 public interface TodoMapper {
 
+    // L'entità Todo è sempre un todo attivo (todos)
+    @Mapping(target = "archived", constant = "false")
     TodoResponse toDTO(Todo todo);
 
 }
@@ -1,26 +1,283 @@
 package com.example.dataware.todolist.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Page;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
-// import org.springframework.data.jpa.repository.Query;
-// import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.dataware.todolist.dto.response.TodoResponse;
 import com.example.dataware.todolist.entity.Todo;
-import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.repository.projection.ArchivedTodo;
+import com.example.dataware.todolist.repository.projection.TodoChange;
+import com.example.dataware.todolist.repository.projection.TodoSearchHit;
 
+import jakarta.persistence.QueryHint;
+
+/**
+ * Tutte le query sono filtrate per user.id (colonna user_id della tabella
+ * todos): lo userId arriva direttamente dal JWT, quindi non serve caricare
+ * prima l'entità User.
+ *
+ * Le scritture native dichiarano le tabelle toccate (HINT_NATIVE_SPACES):
+ * Hibernate non svuota le cache di secondo livello delle altre entità (es:
+ * User) a ogni DELETE di un todo.
+ */
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
-    Page<Todo> findAllByUser(User user, Pageable pageable);
+    Optional<Todo> findOneByIdAndUserId(Long id, Long userId);
+
+    // Paginazione keyset: Spring Data genera i predicati di seek a partire dalla
+    // ScrollPosition (aggiungendo l'id come tie-breaker) e non esegue la COUNT(*)
+    Window<Todo> findAllByUserId(Long userId, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Todo> findAllByUserIdAndCompleted(Long userId, Boolean completed, ScrollPosition position, Sort sort,
+            Limit limit);
+
+    // --- Proiezioni DTO (sola lettura) ---
+    // Le constructor expression selezionano solo le colonne di TodoResponse:
+    // nessuna entità gestita nel persistence context, nessuno snapshot per il
+    // dirty checking e nessun passaggio da TodoMapper
+
+    // Il contenuto della pagina viene letto senza COUNT: il totale (se
+    // richiesto) arriva dalle statistiche per utente (todo_stats), oppure si usa
+    // uno Slice (limit + 1 righe, solo hasNext)
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "t.id, t.title, t.completed, t.createdAt, t.updatedAt, t.version, false) "
+            + "FROM Todo t WHERE t.user.id = :userId")
+    List<TodoResponse> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "t.id, t.title, t.completed, t.createdAt, t.updatedAt, t.version, false) "
+            + "FROM Todo t WHERE t.user.id = :userId AND t.completed = :completed")
+    List<TodoResponse> findResponsesByUserIdAndCompleted(@Param("userId") Long userId,
+            @Param("completed") Boolean completed, Pageable pageable);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "t.id, t.title, t.completed, t.createdAt, t.updatedAt, t.version, false) "
+            + "FROM Todo t WHERE t.user.id = :userId")
+    Slice<TodoResponse> findResponseSliceByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "t.id, t.title, t.completed, t.createdAt, t.updatedAt, t.version, false) "
+            + "FROM Todo t WHERE t.user.id = :userId AND t.completed = :completed")
+    Slice<TodoResponse> findResponseSliceByUserIdAndCompleted(@Param("userId") Long userId,
+            @Param("completed") Boolean completed, Pageable pageable);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "t.id, t.title, t.completed, t.createdAt, t.updatedAt, t.version, false) "
+            + "FROM Todo t WHERE t.id = :id AND t.user.id = :userId")
+    Optional<TodoResponse> findResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Export: cursore lato server con fetch size fissa (il driver Postgres la
+    // rispetta solo dentro una transazione), le righe arrivano a blocchi e
+    // non vengono mai caricate tutte in memoria. Va consumato in un
+    // try-with-resources dentro un metodo @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "t.id, t.title, t.completed, t.createdAt, t.updatedAt, t.version, false) "
+            + "FROM Todo t WHERE t.user.id = :userId ORDER BY t.id")
+    Stream<TodoResponse> streamResponsesByUserId(@Param("userId") Long userId);
+
+    // --- Sincronizzazione incrementale (indice idx_todos_user_change_seq) ---
+
+    @Query("SELECT new com.example.dataware.todolist.repository.projection.TodoChange("
+            + "t.changeSeq, t.id, t.title, t.completed, t.createdAt, t.updatedAt, t.version) "
+            + "FROM Todo t WHERE t.user.id = :userId AND t.changeSeq > :since ORDER BY t.changeSeq")
+    List<TodoChange> findChangesByUserId(@Param("userId") Long userId, @Param("since") long since, Limit limit);
+
+    // Lock condiviso sulle modifiche dell'utente (fino a fine transazione):
+    // attende il commit delle scritture in corso, che prendono lo stesso lock
+    // in modalità esclusiva prima di assegnare il change_seq
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(:userId)", nativeQuery = true)
+    int lockChangesShared(@Param("userId") Long userId);
+
+    // Lock esclusivo sulle modifiche dell'utente (lo stesso dei trigger su
+    // todos): attende le scritture in corso e blocca le nuove fino a fine
+    // transazione
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:userId)", nativeQuery = true)
+    int lockChanges(@Param("userId") Long userId);
+
+    // --- Ricerca full-text (colonna generata title_tsv, indice GIN
+    // idx_todos_user_title_tsv) ---
+    // La query restituisce solo id e rilevanza, ordinati per rank decrescente e
+    // id come tie-breaker; i todo vengono poi letti con
+    // findResponsesByUserIdAndIdIn. afterRank/afterId (entrambi null per la
+    // prima pagina) sono il predicato di seek della paginazione a cursore.
+
+    @Query(value = """
+            SELECT t.id AS id, ts_rank(t.title_tsv, q) AS rank
+            FROM todos t, to_tsquery('simple', :query) q
+            WHERE t.user_id = :userId
+              AND t.title_tsv @@ q
+              AND (CAST(:completed AS boolean) IS NULL OR t.completed = CAST(:completed AS boolean))
+              AND (CAST(:afterRank AS real) IS NULL
+                   OR (ts_rank(t.title_tsv, q), t.id) < (CAST(:afterRank AS real), CAST(:afterId AS bigint)))
+            ORDER BY rank DESC, t.id DESC
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<TodoSearchHit> search(@Param("userId") Long userId, @Param("query") String query,
+            @Param("completed") Boolean completed, @Param("afterRank") Float afterRank,
+            @Param("afterId") Long afterId, @Param("limit") int limit, @Param("offset") long offset);
+
+    @Query(value = """
+            SELECT count(*)
+            FROM todos t
+            WHERE t.user_id = :userId
+              AND t.title_tsv @@ to_tsquery('simple', :query)
+              AND (CAST(:completed AS boolean) IS NULL OR t.completed = CAST(:completed AS boolean))
+            """, nativeQuery = true)
+    long countSearch(@Param("userId") Long userId, @Param("query") String query,
+            @Param("completed") Boolean completed);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "t.id, t.title, t.completed, t.createdAt, t.updatedAt, t.version, false) "
+            + "FROM Todo t WHERE t.user.id = :userId AND t.id IN :ids")
+    List<TodoResponse> findResponsesByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // --- Operazioni batch (una sola istruzione per tutto il set di id) ---
+
+    List<Todo> findAllByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // DELETE set-based con RETURNING: restituisce gli id effettivamente
+    // eliminati, così da costruire l'esito per singolo elemento senza una
+    // SELECT preliminare
+    @Query(value = "DELETE FROM todos WHERE user_id = :userId AND id IN (:ids) RETURNING id", nativeQuery = true)
+    List<Long> deleteAllByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // UPDATE set-based con RETURNING: le bulk update non passano da
+    // @UpdateTimestamp né da @Version, quindi updated_at e version vengono
+    // aggiornati esplicitamente; gli id restituiti servono a invalidare la
+    // cache dei singoli todo. Senza @Modifying (che ammette solo int/void come
+    // risultato): come per la DELETE, le righe di RETURNING vengono lette come
+    // risultato della query. I filtri sono quelli delle liste: stato attuale
+    // (filterCompleted) e tsquery della ricerca (query), null = nessun filtro
+    @Query(value = """
+            UPDATE todos SET completed = :completed, updated_at = :updatedAt, version = version + 1
+            WHERE user_id = :userId
+              AND completed <> :completed
+              AND (CAST(:filterCompleted AS boolean) IS NULL OR completed = CAST(:filterCompleted AS boolean))
+              AND (CAST(:query AS text) IS NULL OR title_tsv @@ to_tsquery('simple', CAST(:query AS text)))
+            RETURNING id
+            """, nativeQuery = true)
+    List<Long> updateCompletedByUserId(@Param("userId") Long userId, @Param("completed") boolean completed,
+            @Param("filterCompleted") Boolean filterCompleted, @Param("query") String query,
+            @Param("updatedAt") Instant updatedAt);
+
+    // --- Scritture dirette sul singolo todo (un solo round trip) ---
+    // version null = nessuna verifica (richiesta senza If-Match). Nessuna riga
+    // interessata significa todo inesistente, di un altro utente oppure con una
+    // versione diversa: solo nell'ultimo caso serve existsByIdAndUserId per
+    // distinguere 404 da 412
+
+    // UPDATE con RETURNING *: la riga aggiornata (con change_seq e version
+    // nuovi) viene mappata direttamente sull'entità, senza SELECT preliminare.
+    // I campi null restano invariati
+    @Query(value = """
+            UPDATE todos
+            SET title = COALESCE(CAST(:title AS varchar), title),
+                completed = COALESCE(CAST(:completed AS boolean), completed),
+                updated_at = :updatedAt,
+                version = version + 1
+            WHERE id = :id
+              AND user_id = :userId
+              AND (CAST(:version AS bigint) IS NULL OR version = CAST(:version AS bigint))
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Todo> updateByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId,
+            @Param("title") String title, @Param("completed") Boolean completed,
+            @Param("updatedAt") Instant updatedAt, @Param("version") Long version);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos"))
+    @Query(value = """
+            DELETE FROM todos
+            WHERE id = :id
+              AND user_id = :userId
+              AND (CAST(:version AS bigint) IS NULL OR version = CAST(:version AS bigint))
+            """, nativeQuery = true)
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId, @Param("version") Long version);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // --- Archiviazione dei todo completati (TodoArchiveJob, vedere
+    // V11__todo_archive.sql) ---
+
+    // Crea le partizioni annuali di todos_archive mancanti fino all'anno di
+    // :until incluso
+    @Query(value = "SELECT 1 FROM todos_archive_create_partitions(:until)", nativeQuery = true)
+    int createArchivePartitions(@Param("until") Instant until);
+
+    // Sposta in todos_archive fino a :limit todo completati prima di :before
+    // (indice parziale idx_todos_completed_at) con un'unica istruzione: la
+    // DELETE attiva i trigger di todos (tombstone e todo_stats) come una
+    // cancellazione. SKIP LOCKED salta i todo in corso di modifica, che
+    // verranno archiviati al giro successivo. Senza @Modifying (vedere
+    // updateCompletedByUserId)
+    // L'advisory lock sull'utente (V6, V14) viene preso prima dei lock di riga
+    // e senza attesa: gli utenti con una scrittura in corso vengono saltati,
+    // quindi il job non attende mai un lock tenuto da una scrittura che a sua
+    // volta attende le righe bloccate dal job
+    @Query(value = """
+            WITH moved AS (
+                DELETE FROM todos
+                WHERE id IN (
+                    SELECT id FROM todos
+                    WHERE completed AND completed_at < :before
+                      AND pg_try_advisory_xact_lock(user_id)
+                    ORDER BY completed_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, created_at, updated_at, title, completed, completed_at, user_id, version
+            )
+            INSERT INTO todos_archive (id, created_at, updated_at, title, completed, completed_at, user_id, version)
+            SELECT id, created_at, updated_at, title, completed, completed_at, user_id, version
+            FROM moved
+            RETURNING id AS id, user_id AS "userId"
+            """, nativeQuery = true)
+    List<ArchivedTodo> archiveCompleted(@Param("before") Instant before, @Param("limit") int limit);
+
+    // --- Eliminazione degli account (UserDeletionJob) ---
+
+    // DELETE a blocchi di limit righe (indici (user_id, ...) di V2): ogni
+    // blocco è una transazione breve, i trigger di todos lavorano per
+    // istruzione e non per riga
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos"))
+    @Query(value = "DELETE FROM todos WHERE id IN (SELECT id FROM todos WHERE user_id = :userId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteBatchByUserId(@Param("userId") Long userId, @Param("limit") int limit);
 
-    Page<Todo> findAllByUserAndCompleted(User user, Boolean completed, Pageable pageable);
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos"))
+    @Query(value = "DELETE FROM todos WHERE user_id = :userId", nativeQuery = true)
+    int deleteAllByUserId(@Param("userId") Long userId);
 
-    Optional<Todo> findOneByIdAndUser(Long id, User user);
+    // Todo archiviati: stessi blocchi, sull'indice idx_todos_archive_user_id
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos_archive"))
+    @Query(value = "DELETE FROM todos_archive WHERE (id, completed_at) IN "
+            + "(SELECT id, completed_at FROM todos_archive WHERE user_id = :userId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteArchivedBatchByUserId(@Param("userId") Long userId, @Param("limit") int limit);
 
-    // @Query(value = "DELETE FROM todos WHERE id = :id AND user_id = :userId",
-    // nativeQuery = true)
-    // int deleteByIdAndUser(@Param("id") Long id, @Param("userId") Long userId);
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos_archive"))
+    @Query(value = "DELETE FROM todos_archive WHERE user_id = :userId", nativeQuery = true)
+    int deleteAllArchivedByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,71 @@
+package com.example.dataware.todolist.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.dataware.todolist.entity.TodoStats;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Le righe di todo_stats sono scritte solo dai trigger su todos e dalla
+ * riconciliazione (reconcile), mai tramite save().
+ * La riconciliazione dichiara la sola tabella todo_stats (HINT_NATIVE_SPACES),
+ * così non svuota la cache di secondo livello di User.
+ */
+@Repository
+public interface TodoStatsRepository extends JpaRepository<TodoStats, Long> {
+
+    // Blocca le statistiche degli utenti del batch: le scritture concorrenti
+    // sui loro todo attendono la fine della riconciliazione e applicano poi
+    // la propria variazione sui valori ricalcolati
+    @Query(value = "SELECT user_id FROM todo_stats WHERE user_id IN (:userIds) ORDER BY user_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Ricalcola le statistiche dai todo e aggiorna solo le righe divergenti;
+    // restituisce il numero di righe corrette (o create)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todo_stats"))
+    @Query(value = """
+            WITH bounds AS (
+                SELECT date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS today_start,
+                       CAST(now() AT TIME ZONE 'UTC' AS DATE) AS today
+            )
+            INSERT INTO todo_stats AS s (user_id, total, completed, created_today, completed_today, stats_date,
+                    updated_at)
+            SELECT u.id,
+                   count(t.id),
+                   count(t.id) FILTER (WHERE t.completed),
+                   count(t.id) FILTER (WHERE t.created_at >= b.today_start),
+                   count(t.id) FILTER (WHERE t.completed_at >= b.today_start),
+                   b.today,
+                   now()
+            FROM users u
+            CROSS JOIN bounds b
+            LEFT JOIN todos t ON t.user_id = u.id
+            WHERE u.id IN (:userIds)
+            GROUP BY u.id, b.today
+            ON CONFLICT (user_id) DO UPDATE SET
+                total = EXCLUDED.total,
+                completed = EXCLUDED.completed,
+                created_today = EXCLUDED.created_today,
+                completed_today = EXCLUDED.completed_today,
+                stats_date = EXCLUDED.stats_date,
+                updated_at = EXCLUDED.updated_at
+            WHERE (s.total, s.completed,
+                    CASE WHEN s.stats_date = EXCLUDED.stats_date THEN s.created_today ELSE 0 END,
+                    CASE WHEN s.stats_date = EXCLUDED.stats_date THEN s.completed_today ELSE 0 END)
+                IS DISTINCT FROM (EXCLUDED.total, EXCLUDED.completed, EXCLUDED.created_today,
+                    EXCLUDED.completed_today)
+            """, nativeQuery = true)
+    int reconcile(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,56 @@
+package com.example.dataware.todolist.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.dataware.todolist.entity.TodoTombstone;
+
+/**
+ * Le righe di todo_tombstones sono scritte solo dal trigger di cancellazione
+ * su todos ed eliminate solo da purge(), mai tramite save()/delete().
+ */
+@Repository
+public interface TodoTombstoneRepository extends JpaRepository<TodoTombstone, Long> {
+
+    List<TodoTombstone> findByUserIdAndChangeSeqGreaterThanOrderByChangeSeq(Long userId, long changeSeq,
+            Limit limit);
+
+    // Ultimo change_seq assegnato (da qualsiasi transazione): le modifiche
+    // future avranno un valore maggiore
+    @Query(value = "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM todo_change_seq",
+            nativeQuery = true)
+    long currentChangeSeq();
+
+    // change_seq più alto tra le tombstone già eliminate: i token precedenti
+    // potrebbero non vedere alcune cancellazioni
+    @Query(value = "SELECT purged_change_seq FROM todo_sync_horizon WHERE id = 1", nativeQuery = true)
+    long findPurgedChangeSeq();
+
+    // Elimina fino a :limit tombstone più vecchie di :before e aggiorna
+    // l'orizzonte nella stessa istruzione; restituisce il numero di righe
+    // eliminate
+    @Query(value = """
+            WITH purged AS (
+                DELETE FROM todo_tombstones
+                WHERE change_seq IN (
+                    SELECT change_seq FROM todo_tombstones
+                    WHERE deleted_at < :before
+                    ORDER BY deleted_at
+                    LIMIT :limit
+                )
+                RETURNING change_seq
+            ), horizon AS (
+                UPDATE todo_sync_horizon
+                SET purged_change_seq = GREATEST(purged_change_seq, (SELECT max(change_seq) FROM purged))
+                WHERE id = 1 AND EXISTS (SELECT 1 FROM purged)
+            )
+            SELECT count(*) FROM purged
+            """, nativeQuery = true)
+    long purge(@Param("before") Instant before, @Param("limit") int limit);
+}
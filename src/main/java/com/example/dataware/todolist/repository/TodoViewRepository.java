@@ -0,0 +1,57 @@
+package com.example.dataware.todolist.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.dataware.todolist.dto.response.TodoResponse;
+import com.example.dataware.todolist.entity.TodoView;
+
+/**
+ * Letture con includeArchived=true sulla vista todos_all (todo attivi e
+ * archiviati). Stesse query delle proiezioni di TodoRepository: le condizioni
+ * vengono applicate a entrambe le tabelle, che hanno gli indici (user_id, id)
+ * e (user_id, updated_at, id).
+ */
+@Repository
+public interface TodoViewRepository extends JpaRepository<TodoView, Long> {
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "v.id, v.title, v.completed, v.createdAt, v.updatedAt, v.version, v.archived) "
+            + "FROM TodoView v WHERE v.userId = :userId")
+    List<TodoResponse> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "v.id, v.title, v.completed, v.createdAt, v.updatedAt, v.version, v.archived) "
+            + "FROM TodoView v WHERE v.userId = :userId AND v.completed = :completed")
+    List<TodoResponse> findResponsesByUserIdAndCompleted(@Param("userId") Long userId,
+            @Param("completed") Boolean completed, Pageable pageable);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "v.id, v.title, v.completed, v.createdAt, v.updatedAt, v.version, v.archived) "
+            + "FROM TodoView v WHERE v.userId = :userId")
+    Slice<TodoResponse> findResponseSliceByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "v.id, v.title, v.completed, v.createdAt, v.updatedAt, v.version, v.archived) "
+            + "FROM TodoView v WHERE v.userId = :userId AND v.completed = :completed")
+    Slice<TodoResponse> findResponseSliceByUserIdAndCompleted(@Param("userId") Long userId,
+            @Param("completed") Boolean completed, Pageable pageable);
+
+    // Solo l'archivio (archived = true esclude il ramo di todos dalla vista):
+    // usato da GET /todos/{todoId} quando il todo non è tra quelli attivi
+    @Query("SELECT new com.example.dataware.todolist.dto.response.TodoResponse("
+            + "v.id, v.title, v.completed, v.createdAt, v.updatedAt, v.version, v.archived) "
+            + "FROM TodoView v WHERE v.id = :id AND v.userId = :userId AND v.archived = true")
+    Optional<TodoResponse> findArchivedResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Todo archiviati dell'utente (non conteggiati in todo_stats): scansione
+    // del solo indice (user_id, id) dell'archivio
+    long countByUserIdAndArchivedTrue(Long userId);
+}
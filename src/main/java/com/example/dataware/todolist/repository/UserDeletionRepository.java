@@ -0,0 +1,76 @@
+package com.example.dataware.todolist.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.dataware.todolist.entity.UserDeletion;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Tutte le scritture sono singole istruzioni idempotenti: il job di
+ * eliminazione può girare su più istanze contemporaneamente.
+ * Con HINT_NATIVE_SPACES = user_deletions le scritture del job non
+ * invalidano la cache di secondo livello di User.
+ */
+@Repository
+public interface UserDeletionRepository extends JpaRepository<UserDeletion, Long> {
+
+    // Pagina senza COUNT (limit + 1 righe, solo hasNext)
+    Slice<UserDeletion> findAllBy(Pageable pageable);
+
+    // Indice parziale idx_user_deletions_pending
+    @Query(value = "SELECT user_id FROM user_deletions WHERE completed_at IS NULL ORDER BY requested_at LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findPendingUserIds(@Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_deletions"))
+    @Query(value = """
+            INSERT INTO user_deletions (user_id, email, requested_at)
+            VALUES (:userId, :email, :requestedAt)
+            ON CONFLICT (user_id) DO NOTHING
+            """, nativeQuery = true)
+    int insert(@Param("userId") Long userId, @Param("email") String email,
+            @Param("requestedAt") Instant requestedAt);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_deletions"))
+    @Query(value = "UPDATE user_deletions SET todos_deleted = todos_deleted + :count WHERE user_id = :userId",
+            nativeQuery = true)
+    int addTodosDeleted(@Param("userId") Long userId, @Param("count") long count);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_deletions"))
+    @Query(value = "UPDATE user_deletions SET files_deleted = TRUE WHERE user_id = :userId", nativeQuery = true)
+    int markFilesDeleted(@Param("userId") Long userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_deletions"))
+    @Query(value = "UPDATE user_deletions SET completed_at = :completedAt, last_error = NULL "
+            + "WHERE user_id = :userId AND completed_at IS NULL", nativeQuery = true)
+    int markCompleted(@Param("userId") Long userId, @Param("completedAt") Instant completedAt);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_deletions"))
+    @Query(value = "UPDATE user_deletions SET attempts = attempts + 1, last_error = :error WHERE user_id = :userId",
+            nativeQuery = true)
+    int recordFailure(@Param("userId") Long userId, @Param("error") String error);
+
+    // Indice parziale idx_user_deletions_completed_at
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_deletions"))
+    @Query(value = "DELETE FROM user_deletions WHERE completed_at < :before", nativeQuery = true)
+    int deleteCompletedBefore(@Param("before") Instant before);
+
+}
@@ -0,0 +1,14 @@
+package com.example.dataware.todolist.repository;
+
+import java.util.Optional;
+
+import com.example.dataware.todolist.entity.User;
+
+/**
+ * Ricerca dell'utente per email tramite il natural id (vedere
+ * UserNaturalIdRepositoryImpl), al posto della query derivata di Spring Data.
+ */
+public interface UserNaturalIdRepository {
+
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,41 @@
+package com.example.dataware.todolist.repository;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dataware.todolist.entity.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementazione del frammento UserNaturalIdRepository, combinata da Spring
+ * Data con UserRepository.
+ *
+ * La ricerca per natural id passa dalle cache di secondo livello: email → id
+ * dalla region del natural id, poi l'entità dalla region di User. Solo in caso
+ * di miss viene eseguita la SELECT. Una query JPQL (o derivata) non userebbe
+ * la cache e andrebbe sempre sul DB.
+ *
+ * Il valore in cache può essere obsoleto (invalidazione tra istanze persa):
+ * va usato solo per letture non critiche (profilo, utente dell'access token).
+ * Refresh token e stato dell'account si leggono con
+ * UserRepository.findCurrentByEmail.
+ */
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Transazione necessaria anche per le chiamate fuori da un service: senza
+    // transazione la Session ottenuta con unwrap verrebbe chiusa subito
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+}
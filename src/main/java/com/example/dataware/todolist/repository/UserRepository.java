@@ -1,16 +1,85 @@
 package com.example.dataware.todolist.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.dataware.todolist.dto.response.UserDirectoryResponse;
 import com.example.dataware.todolist.entity.User;
 
-@Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+import jakarta.persistence.QueryHint;
 
+/**
+ * findByEmail è implementato in UserNaturalIdRepositoryImpl (natural id, con
+ * cache di secondo livello). findCurrentByEmail legge sempre dal DB.
+ */
+@Repository
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
     boolean existsByEmail(String email);
 
+    // Utente letto sempre dal DB, mai dalla cache di secondo livello: per le
+    // verifiche di sicurezza (refresh token, stato dell'account) e per le
+    // scritture di login, refresh e logout, dove un valore obsoleto di
+    // un'altra istanza non è accettabile (CacheMode IGNORE: la cache non viene
+    // né letta né scritta)
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT u FROM User u WHERE u.email = :email")
+    Optional<User> findCurrentByEmail(@Param("email") String email);
+
+    // Pagina senza COUNT (limit + 1 righe, solo hasNext)
+    Slice<User> findAllBy(Pageable pageable);
+
+    // Stima del numero di righe dalle statistiche di Postgres (aggiornate da
+    // ANALYZE/autovacuum): -1 se la tabella non è mai stata analizzata
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = to_regclass('users')",
+            nativeQuery = true)
+    long estimateCount();
+
+    // --- Directory utenti (admin): paginazione keyset sulla chiave primaria ---
+    // I conteggi dei todo arrivano da todo_stats con una LEFT JOIN nella stessa
+    // query: nessuna aggregazione su todos e nessun accesso a User.todos.
+    // prefix è già in minuscolo, con i caratteri speciali di LIKE escapati e
+    // il % finale (indici idx_users_email_prefix e idx_users_nome_prefix)
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.UserDirectoryResponse("
+            + "u.id, u.nome, u.email, u.role, u.status, u.createdAt, COALESCE(s.total, 0L), COALESCE(s.completed, 0L)) "
+            + "FROM User u LEFT JOIN TodoStats s ON s.userId = u.id "
+            + "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserDirectoryResponse> findDirectory(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT new com.example.dataware.todolist.dto.response.UserDirectoryResponse("
+            + "u.id, u.nome, u.email, u.role, u.status, u.createdAt, COALESCE(s.total, 0L), COALESCE(s.completed, 0L)) "
+            + "FROM User u LEFT JOIN TodoStats s ON s.userId = u.id "
+            + "WHERE u.id > :afterId "
+            + "AND (lower(u.email) LIKE :prefix ESCAPE '\\' OR lower(u.nome) LIKE :prefix ESCAPE '\\') "
+            + "ORDER BY u.id")
+    List<UserDirectoryResponse> findDirectoryByPrefix(@Param("afterId") long afterId,
+            @Param("prefix") String prefix, Limit limit);
+
+    // Paginazione keyset sugli id, per i job che elaborano tutti gli utenti a blocchi
+    @Query(value = "SELECT id FROM users WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    // Ultimo passo dell'eliminazione asincrona: solo un utente già marcato
+    // DELETING (todo_stats viene eliminata in cascata). Le query native di
+    // scrittura dichiarano le tabelle toccate (HINT_NATIVE_SPACES): Hibernate
+    // svuota solo le cache di secondo livello di quelle tabelle, qui User e il
+    // suo natural id, invece di tutte
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "DELETE FROM users WHERE id = :id AND status = 'DELETING'", nativeQuery = true)
+    int deleteDeletingById(@Param("id") Long id);
+
 }
@@ -0,0 +1,12 @@
+package com.example.dataware.todolist.repository.projection;
+
+/**
+ * Todo spostato in todos_archive dal job di archiviazione: id e utente
+ * proprietario, per invalidare la cache.
+ */
+public interface ArchivedTodo {
+
+    Long getId();
+
+    Long getUserId();
+}
@@ -0,0 +1,29 @@
+package com.example.dataware.todolist.repository.projection;
+
+import java.time.Instant;
+
+import com.example.dataware.todolist.dto.response.TodoResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Todo creato o modificato dopo un token di sincronizzazione, con il suo
+ * change_seq (proiezione JPQL, vedere TodoRepository.findChangesByUserId).
+ */
+@Getter
+@AllArgsConstructor
+public class TodoChange {
+
+    private Long changeSeq;
+    private Long id;
+    private String title;
+    private Boolean completed;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Long version;
+
+    public TodoResponse toResponse() {
+        return new TodoResponse(id, title, completed, createdAt, updatedAt, version, false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.dataware.todolist.repository.projection;
+
+/**
+ * Risultato della ricerca full-text: id del todo e rilevanza (ts_rank).
+ */
+public interface TodoSearchHit {
+
+    Long getId();
+
+    Float getRank();
+}
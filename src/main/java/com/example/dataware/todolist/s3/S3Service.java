@@ -1,6 +1,7 @@
 package com.example.dataware.todolist.s3;
 
 import java.net.URI;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -13,8 +14,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetUrlRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 @Slf4j
@@ -97,6 +104,51 @@ public class S3Service {
         }
     }
 
+    /**
+     * Elimina tutti i file di un utente (prefisso users/{userId}/), compresi
+     * eventuali file orfani di upload precedenti. Le key vengono elencate a
+     * pagine ed eliminate con una DeleteObjects per pagina (massimo 1000 key).
+     * 
+     * A differenza di deleteFileByUrl gli errori vengono propagati: il job di
+     * eliminazione degli account riprova all'esecuzione successiva.
+     * 
+     * @param userId ID dell'utente
+     * @return il numero di file eliminati
+     */
+    public int deleteUserFiles(Long userId) {
+        String prefix = "users/" + userId + "/";
+        ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
+                .bucket(S3Properties.getS3Bucket())
+                .prefix(prefix)
+                .build();
+
+        int deleted = 0;
+        for (ListObjectsV2Response page : S3Client.listObjectsV2Paginator(listRequest)) {
+            List<ObjectIdentifier> keys = page.contents().stream()
+                    .map(object -> ObjectIdentifier.builder().key(object.key()).build())
+                    .toList();
+            if (keys.isEmpty()) {
+                continue;
+            }
+
+            DeleteObjectsRequest deleteRequest = DeleteObjectsRequest.builder()
+                    .bucket(S3Properties.getS3Bucket())
+                    .delete(Delete.builder().objects(keys).quiet(true).build())
+                    .build();
+            DeleteObjectsResponse response = S3Client.deleteObjects(deleteRequest);
+
+            // In modalità quiet la risposta contiene solo le key non eliminate
+            if (response.hasErrors() && !response.errors().isEmpty()) {
+                throw new IllegalStateException("Eliminazione file S3 fallita (prefix: " + prefix + "): "
+                        + response.errors().get(0).message());
+            }
+            deleted += keys.size();
+        }
+
+        log.debug("File eliminati da S3 (prefix: {}): {}", prefix, deleted);
+        return deleted;
+    }
+
     /**
      * Estrae la key S3 dall'URL pubblico.
      * Supporta solo il formato URL Virtual-hosted style di S3:
@@ -0,0 +1,106 @@
+package com.example.dataware.todolist.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.stereotype.Service;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Esecuzione esclusiva dei job schedulati tra le istanze, con un advisory
+ * lock di sessione PostgreSQL (pg_try_advisory_lock) sul primary.
+ * 
+ * - Il lock è tenuto da una connessione dedicata del pool del primary per
+ * tutta l'esecuzione del job, che usa le proprie transazioni brevi.
+ * - Se un'altra istanza sta già eseguendo il job, l'esecuzione viene saltata
+ * (nessuna attesa).
+ * - Chiave a due interi (JOB_LOCK_CLASS, hash del nome del job): spazio
+ * separato dagli advisory lock per utente (chiave bigint, vedere V6).
+ * - Se l'istanza muore il lock viene rilasciato con la connessione.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobLockService {
+
+    private static final int JOB_LOCK_CLASS = 0x4A4F4253; // "JOBS"
+
+    private final HikariDataSource primaryDataSource;
+
+    /**
+     * Esegue il job solo se nessun'altra istanza lo sta eseguendo.
+     *
+     * @param jobName nome del job (chiave del lock)
+     * @param job     il job
+     * @return true se il job è stato eseguito, false se era già in esecuzione
+     *         su un'altra istanza
+     */
+    public boolean runExclusively(String jobName, Runnable job) {
+        int key = jobName.hashCode();
+
+        Connection connection;
+        try {
+            connection = primaryDataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Connessione per il lock del job " + jobName + " non disponibile", e);
+        }
+
+        boolean release = true;
+        try {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?, ?)", key)) {
+                log.info("Job {} già in esecuzione su un'altra istanza: esecuzione saltata", jobName);
+                return false;
+            }
+
+            try {
+                job.run();
+                return true;
+            } finally {
+                release = unlock(connection, jobName, key);
+            }
+        } finally {
+            close(connection, release);
+        }
+    }
+
+    private boolean unlock(Connection connection, String jobName, int key) {
+        try {
+            return advisoryLock(connection, "SELECT pg_advisory_unlock(?, ?)", key);
+        } catch (IllegalStateException e) {
+            log.warn("Rilascio del lock del job {} fallito: {}", jobName, e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, int key) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, JOB_LOCK_CLASS);
+            statement.setInt(2, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Advisory lock fallito: " + e.getMessage(), e);
+        }
+    }
+
+    // Una connessione con il lock ancora attivo non torna nel pool: viene
+    // chiusa, e PostgreSQL rilascia il lock con la sessione
+    private void close(Connection connection, boolean lockReleased) {
+        if (!lockReleased) {
+            primaryDataSource.evictConnection(connection);
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Chiusura connessione del lock fallita: {}", e.getMessage());
+        }
+    }
+
+}
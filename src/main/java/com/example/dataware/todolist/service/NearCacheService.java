@@ -0,0 +1,166 @@
+package com.example.dataware.todolist.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Near cache in-process davanti a Redis (usata da RedisService).
+ * 
+ * - I valori sono salvati come byte[] (JSON UTF-8): pochi oggetti grandi e
+ * di lunga durata, quindi pressione sul GC costante anche con molte entry.
+ * - Dimensione limitata in byte (app.cache.near.maximum-size), con
+ * eviction/ammissione W-TinyLFU di Caffeine.
+ * - TTL per chiave: quello del SET su Redis, limitato da
+ * app.cache.near.max-ttl che è anche il limite di staleness se un messaggio
+ * di invalidazione va perso.
+ * - Invalidazione: ogni cancellazione su Redis invalida la chiave
+ * localmente e la pubblica sul canale near-cache:invalidate, le altre istanze
+ * la rimuovono dalla propria near cache (i messaggi della stessa istanza sono
+ * ignorati). I riempimenti di cache (chiavi a valore immutabile) non
+ * pubblicano nulla.
+ * - Un valore letto da Redis non viene salvato se la chiave è stata
+ * invalidata durante la lettura.
+ * - Metriche Micrometer: cache.* con tag cache="redis-near".
+ */
+@Service
+public class NearCacheService {
+
+    private static final String INVALIDATION_CHANNEL = "near-cache:invalidate";
+    private static final String SEPARATOR = "\n";
+    private static final int STRIPES = 1024;
+
+    private final RedisPubSubService redisPubSubService;
+    private final long maxTtlNanos;
+    private final Cache<String, Entry> cache;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Contatori di invalidazione, indicizzati per hash della chiave
+    private final AtomicLongArray invalidationStamps = new AtomicLongArray(STRIPES);
+
+    private record Entry(byte[] value, long ttlNanos) {
+    }
+
+    public NearCacheService(
+            RedisPubSubService redisPubSubService,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.near.maximum-size}") DataSize maximumSize,
+            @Value("${app.cache.near.max-ttl}") Duration maxTtl) {
+        this.redisPubSubService = redisPubSubService;
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, Entry entry) -> key.length() * 2 + entry.value().length)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime,
+                            long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "redis-near");
+        redisPubSubService.subscribe(INVALIDATION_CHANNEL, this::onInvalidation);
+    }
+
+    /**
+     * Restituisce il valore in near cache o null se assente/scaduto.
+     */
+    public byte[] get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Stato di invalidazione della chiave, da leggere prima di interrogare
+     * Redis e da passare a putIfNotInvalidated.
+     */
+    public long stamp(String key) {
+        return invalidationStamps.get(stripe(key));
+    }
+
+    /**
+     * Salva un valore letto da Redis, solo se la chiave non è stata invalidata
+     * dopo stamp().
+     */
+    public void putIfNotInvalidated(String key, byte[] value, long stamp) {
+        cache.put(key, new Entry(value, maxTtlNanos));
+
+        // Invalidazione concorrente: il valore potrebbe essere obsoleto
+        if (invalidationStamps.get(stripe(key)) != stamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Salva un valore appena scritto su Redis da questa istanza.
+     * 
+     * @param ttlSeconds TTL su Redis (se <= 0 si usa app.cache.near.max-ttl)
+     */
+    public void put(String key, byte[] value, long ttlSeconds) {
+        long ttlNanos = ttlSeconds > 0
+                ? Math.min(Duration.ofSeconds(ttlSeconds).toNanos(), maxTtlNanos)
+                : maxTtlNanos;
+        cache.put(key, new Entry(value, ttlNanos));
+    }
+
+    /**
+     * Invalida le chiavi localmente e sulle altre istanze.
+     */
+    public void invalidate(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        invalidateLocal(keys);
+        redisPubSubService.publish(INVALIDATION_CHANNEL, nodeId + SEPARATOR + String.join(SEPARATOR, keys));
+    }
+
+    private void onInvalidation(String message) {
+        List<String> parts = Arrays.asList(message.split(SEPARATOR));
+        if (parts.isEmpty() || nodeId.equals(parts.get(0))) {
+            return;
+        }
+
+        invalidateLocal(parts.subList(1, parts.size()));
+    }
+
+    private void invalidateLocal(Collection<String> keys) {
+        // Prima i contatori, poi la rimozione: una lettura concorrente da Redis
+        // vede il cambio oppure il suo put precede l'invalidazione
+        keys.forEach(key -> invalidationStamps.incrementAndGet(stripe(key)));
+        cache.invalidateAll(keys);
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+}
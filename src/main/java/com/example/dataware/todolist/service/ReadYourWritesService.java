@@ -0,0 +1,127 @@
+package com.example.dataware.todolist.service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.dataware.todolist.filter.jwt.payload.JwtPayload;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Decide quando una transazione in sola lettura deve usare il primary invece
+ * di una replica (vedere ReplicaRoutingDataSource).
+ *
+ * - Dopo una scrittura committata l'utente resta sul primary per
+ * app.datasource.replica.sticky-window: le sue letture successive (e le cache
+ * riempite da queste letture) vedono sempre la modifica, anche se le repliche
+ * non l'hanno ancora applicata.
+ * - La finestra vale su tutte le istanze: l'id dell'utente viene pubblicato
+ * sul canale db:writes dopo il commit (i messaggi della stessa istanza sono
+ * ignorati). Un messaggio perso lascia al massimo una lettura in ritardo di
+ * app.datasource.replica.max-lag.
+ * - onPrimary forza il primary per un blocco di codice, per le letture che
+ * non hanno ancora un utente autenticato (es. verifica del refresh token).
+ */
+@Service
+public class ReadYourWritesService {
+
+    private static final String CHANNEL = "db:writes";
+    private static final String SEPARATOR = "\n";
+    private static final long MAX_TRACKED_USERS = 100_000;
+
+    private final RedisPubSubService redisPubSubService;
+    private final Cache<Long, Boolean> recentWriters;
+    private final ThreadLocal<Boolean> primaryRequired = ThreadLocal.withInitial(() -> false);
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public ReadYourWritesService(
+            RedisPubSubService redisPubSubService,
+            @Value("${app.datasource.replica.sticky-window}") Duration stickyWindow) {
+        this.redisPubSubService = redisPubSubService;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_USERS)
+                .expireAfterWrite(stickyWindow)
+                .build();
+        redisPubSubService.subscribe(CHANNEL, this::onWrite);
+    }
+
+    /**
+     * Tiene l'utente sul primary per la finestra configurata, a partire dal
+     * commit della transazione corrente (subito se non c'è una transazione
+     * attiva).
+     *
+     * @param userId id dell'utente che ha scritto
+     */
+    public void recordWriteAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordWrite(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(userId);
+            }
+        });
+    }
+
+    /**
+     * Esegue l'azione leggendo sempre dal primary.
+     *
+     * @param action l'azione (le transazioni devono iniziare al suo interno)
+     * @return il risultato dell'azione
+     */
+    public <T> T onPrimary(Supplier<T> action) {
+        boolean previous = primaryRequired.get();
+        primaryRequired.set(true);
+        try {
+            return action.get();
+        } finally {
+            primaryRequired.set(previous);
+        }
+    }
+
+    /**
+     * @return true se la connessione in sola lettura richiesta dal thread
+     *         corrente deve essere presa dal primary
+     */
+    public boolean mustReadFromPrimary() {
+        if (primaryRequired.get()) {
+            return true;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null
+                && authentication.getPrincipal() instanceof JwtPayload jwtPayload
+                && jwtPayload.getUserId() != null
+                && recentWriters.getIfPresent(jwtPayload.getUserId()) != null;
+    }
+
+    private void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+        redisPubSubService.publish(CHANNEL, nodeId + SEPARATOR + userId);
+    }
+
+    private void onWrite(String message) {
+        String[] parts = message.split(SEPARATOR);
+        if (parts.length != 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        try {
+            recentWriters.put(Long.valueOf(parts[1]), Boolean.TRUE);
+        } catch (NumberFormatException e) {
+            // Messaggio non valido: ignorato
+        }
+    }
+
+}
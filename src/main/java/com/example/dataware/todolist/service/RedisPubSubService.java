@@ -0,0 +1,89 @@
+package com.example.dataware.todolist.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Servizio per la comunicazione tra istanze tramite Redis pub/sub.
+ * 
+ * - I messaggi vengono pubblicati sulla connessione applicativa (asincrona,
+ * senza attendere la risposta di Redis).
+ * - Le sottoscrizioni usano una connessione dedicata: Lettuce le ripristina
+ * automaticamente dopo una riconnessione, i messaggi pubblicati nel frattempo
+ * vengono persi (pub/sub è at-most-once).
+ * - Gli handler vengono eseguiti sul thread I/O di Lettuce: devono essere
+ * brevi e non bloccanti.
+ */
+@Slf4j
+@Service
+public class RedisPubSubService {
+
+    private final StatefulRedisConnection<String, String> redisConnectionApp;
+    private final StatefulRedisPubSubConnection<String, String> redisPubSubConnection;
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    public RedisPubSubService(
+            StatefulRedisConnection<String, String> redisConnectionApp,
+            StatefulRedisPubSubConnection<String, String> redisPubSubConnection) {
+        this.redisConnectionApp = redisConnectionApp;
+        this.redisPubSubConnection = redisPubSubConnection;
+        this.redisPubSubConnection.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, String message) {
+                dispatch(channel, message);
+            }
+        });
+    }
+
+    /**
+     * Pubblica un messaggio su un canale.
+     * 
+     * @param channel il canale
+     * @param message il messaggio
+     */
+    public void publish(String channel, String message) {
+        redisConnectionApp.async().publish(channel, message)
+                .whenComplete((receivers, e) -> {
+                    if (e != null) {
+                        log.warn("Pubblicazione su canale {} fallita: {}", channel, e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Registra un handler per i messaggi di un canale.
+     * 
+     * @param channel il canale
+     * @param handler l'handler invocato per ogni messaggio ricevuto
+     */
+    public void subscribe(String channel, Consumer<String> handler) {
+        handlers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(handler);
+        redisPubSubConnection.sync().subscribe(channel);
+    }
+
+    private void dispatch(String channel, String message) {
+        List<Consumer<String>> channelHandlers = handlers.get(channel);
+        if (channelHandlers == null) {
+            return;
+        }
+
+        for (Consumer<String> handler : channelHandlers) {
+            try {
+                handler.accept(message);
+            } catch (RuntimeException e) {
+                log.error("Errore nella gestione del messaggio sul canale {}", channel, e);
+            }
+        }
+    }
+
+}
@@ -1,9 +1,15 @@
 package com.example.dataware.todolist.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.stereotype.Service;
 
+import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.api.StatefulRedisConnection;
 import lombok.RequiredArgsConstructor;
+import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.ObjectMapper;
 
 /**
@@ -14,8 +20,18 @@ import tools.jackson.databind.ObjectMapper;
  * mappe) con TTL opzionale.
  * - Lettura dei valori deserializzati nel tipo corretto.
  * - Cancellazione di chiavi.
+ * - Script Lua con risultato intero (contatori atomici).
  * 
  * Utilizza ObjectMapper per la serializzazione/deserializzazione JSON.
+ * 
+ * Le letture passano prima dalla near cache in-process (NearCacheService):
+ * le cancellazioni invalidano le chiavi su tutte le istanze, mentre set serve
+ * a riempire la cache (chiavi con valore immutabile, es. pagine per
+ * generazione) e aggiorna solo la near cache locale.
+ * 
+ * Gli script Lua agiscono solo su Redis: le chiavi che modificano (es.
+ * contatori di versione) vanno lette solo tramite script, mai con get(),
+ * così non finiscono mai in near cache.
  */
 
 @Service
@@ -24,9 +40,11 @@ public class RedisService {
 
     private final StatefulRedisConnection<String, String> redisConnectionApp;
     private final ObjectMapper objectMapper;
+    private final NearCacheService nearCacheService;
 
     /**
-     * Salva un valore generico su Redis.
+     * Salva un valore generico su Redis (riempimento cache: non pubblica
+     * invalidazioni, la chiave non deve cambiare valore).
      * 
      * @param key        la chiave Redis
      * @param value      il valore da salvare (qualsiasi tipo)
@@ -35,12 +53,13 @@ public class RedisService {
      */
     public <T> void set(String key, T value, long ttlSeconds) {
         try {
-            String json = objectMapper.writeValueAsString(value);
+            byte[] json = objectMapper.writeValueAsBytes(value);
             if (ttlSeconds > 0) {
-                redisConnectionApp.sync().setex(key, ttlSeconds, json);
+                redisConnectionApp.sync().setex(key, ttlSeconds, toString(json));
             } else {
-                redisConnectionApp.sync().set(key, json);
+                redisConnectionApp.sync().set(key, toString(json));
             }
+            nearCacheService.put(key, json, ttlSeconds);
         } catch (Exception e) {
             throw new RuntimeException("Errore serializzazione Redis per key: " + key, e);
         }
@@ -55,7 +74,7 @@ public class RedisService {
      * @return il valore deserializzato o null se la chiave non esiste
      */
     public <T> T get(String key, Class<T> targetClass) {
-        String json = redisConnectionApp.sync().get(key);
+        byte[] json = read(key);
         if (json == null)
             return null;
 
@@ -66,13 +85,86 @@ public class RedisService {
         }
     }
 
+    /**
+     * Legge un valore generico da Redis (tipi parametrizzati, es:
+     * PageResponse<TodoResponse>).
+     * 
+     * @param key     la chiave Redis
+     * @param typeRef il riferimento al tipo da leggere
+     * @param <T>     tipo del valore
+     * @return il valore deserializzato o null se la chiave non esiste
+     */
+    public <T> T get(String key, TypeReference<T> typeRef) {
+        byte[] json = read(key);
+        if (json == null)
+            return null;
+
+        try {
+            return objectMapper.readValue(json, typeRef);
+        } catch (Exception e) {
+            throw new RuntimeException("Errore deserializzazione Redis per key: " + key, e);
+        }
+    }
+
+    /**
+     * Esegue uno script Lua che restituisce un intero, direttamente su Redis
+     * (senza near cache).
+     * 
+     * @param script lo script Lua
+     * @param keys   le chiavi passate come KEYS
+     * @param args   gli argomenti passati come ARGV
+     * @return il risultato dello script
+     */
+    public Long evalLong(String script, List<String> keys, String... args) {
+        return redisConnectionApp.sync().eval(script, ScriptOutputType.INTEGER, keys.toArray(String[]::new), args);
+    }
+
     /**
      * Cancella una chiave da Redis.
      * 
      * @param key la chiave da cancellare
      */
     public void delete(String key) {
-        redisConnectionApp.sync().del(key);
+        delete(List.of(key));
+    }
+
+    /**
+     * Cancella più chiavi da Redis con un solo comando DEL.
+     * 
+     * @param keys le chiavi da cancellare
+     */
+    public void delete(Collection<String> keys) {
+        if (keys.isEmpty())
+            return;
+
+        try {
+            redisConnectionApp.sync().del(keys.toArray(String[]::new));
+        } finally {
+            nearCacheService.invalidate(keys);
+        }
+    }
+
+    /**
+     * Legge il JSON di una chiave dalla near cache o, se assente, da Redis
+     * (salvandolo in near cache).
+     */
+    private byte[] read(String key) {
+        byte[] cached = nearCacheService.get(key);
+        if (cached != null)
+            return cached;
+
+        long stamp = nearCacheService.stamp(key);
+        String json = redisConnectionApp.sync().get(key);
+        if (json == null)
+            return null;
+
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        nearCacheService.putIfNotInvalidated(key, bytes, stamp);
+        return bytes;
+    }
+
+    private static String toString(byte[] json) {
+        return new String(json, StandardCharsets.UTF_8);
     }
 
 }
@@ -0,0 +1,105 @@
+package com.example.dataware.todolist.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Numeri di versione su Redis per le risorse di un utente (generazione della
+ * lista todo, profilo), usati come chiave di cache e come ETag.
+ * 
+ * - Una versione cambia a ogni scrittura committata sulla risorsa.
+ * - Se la chiave non esiste (prima lettura o TTL scaduto) viene inizializzata
+ * al timestamp corrente in millisecondi: sempre maggiore delle versioni già
+ * usate, quindi un valore visto in passato non viene mai riassegnato.
+ * 
+ * Lettura e incremento sono script Lua eseguiti direttamente su Redis, senza
+ * passare dalla near cache: una versione letta da una copia locale potrebbe
+ * essere vecchia e servire pagine obsolete o 304 sbagliati.
+ * 
+ * Gli errori di Redis non fanno fallire la richiesta: current() restituisce
+ * null e il chiamante procede senza cache/ETag.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionService {
+
+    // Legge la versione; se la chiave non esiste la inizializza al timestamp
+    // corrente (in modo atomico: richieste concorrenti vedono lo stesso valore)
+    private static final String CURRENT_SCRIPT = """
+            local version = redis.call('GET', KEYS[1])
+            if version then
+                return tonumber(version)
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2])
+            return tonumber(ARGV[1])
+            """;
+
+    // Incrementa la versione; se la chiave è scaduta la reinizializza al
+    // timestamp corrente (sempre maggiore delle versioni già usate)
+    private static final String INCREMENT_SCRIPT = """
+            local version
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                version = redis.call('INCR', KEYS[1])
+            else
+                version = tonumber(ARGV[1])
+                redis.call('SET', KEYS[1], version)
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return version
+            """;
+
+    private final RedisService redisService;
+
+    /**
+     * @param key        la chiave Redis della versione
+     * @param ttlSeconds durata della chiave se viene inizializzata
+     * @return la versione corrente, oppure null se Redis non è disponibile
+     */
+    public Long current(String key, long ttlSeconds) {
+        try {
+            return redisService.evalLong(CURRENT_SCRIPT, List.of(key),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(ttlSeconds));
+        } catch (RuntimeException e) {
+            log.warn("Lettura versione fallita (key: {}): {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Incrementa la versione subito (da chiamare dopo il commit).
+     */
+    public void increment(String key, long ttlSeconds) {
+        try {
+            redisService.evalLong(INCREMENT_SCRIPT, List.of(key),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(ttlSeconds));
+        } catch (RuntimeException e) {
+            log.warn("Incremento versione fallito (key: {}): {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Incrementa la versione dopo il commit della transazione corrente (subito
+     * se non c'è una transazione attiva).
+     */
+    public void incrementAfterCommit(String key, long ttlSeconds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(key, ttlSeconds);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment(key, ttlSeconds);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,302 @@
+package com.example.dataware.todolist.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.dataware.todolist.dto.response.PageResponse;
+import com.example.dataware.todolist.dto.response.TodoResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.type.TypeReference;
+
+/**
+ * Cache read-through su Redis dei todo.
+ * 
+ * Singoli todo (TodoResponse), chiave todo:{userId}:{todoId}:
+ * - Lettura: in caso di miss il valore viene caricato dal loader (DB) e
+ * salvato con TTL configurabile (app.cache.todo.ttl).
+ * - Scrittura: update e delete invalidano la chiave dopo il commit della
+ * transazione.
+ * - Consistenza sullo stesso nodo: ogni invalidazione incrementa un contatore
+ * (striped per chiave). Un lettore che ha caricato dal DB prima di un commit
+ * concorrente rileva il cambio del contatore dopo il SET e cancella la
+ * chiave: una entry obsoleta non viene mai servita dopo una scrittura andata
+ * a buon fine.
+ * 
+ * Pagine della lista (PageResponse<TodoResponse>), chiave
+ * todos:list:{userId}:g{generation}:...:
+ * - Ogni utente ha un numero di generazione (todos:gen:{userId}) incluso
+ * nella chiave di tutte le sue pagine.
+ * - Qualsiasi scrittura sui todo incrementa la generazione dopo il commit:
+ * l'invalidazione è O(1) indipendentemente da quante combinazioni di
+ * pagina/ordinamento/filtro sono in cache, le pagine delle generazioni
+ * precedenti non vengono più lette e scadono con il loro TTL
+ * (app.cache.todo.list-ttl).
+ * - La generazione viene letta prima del DB: una pagina caricata prima di un
+ * commit concorrente finisce sotto la generazione vecchia.
+ * - Dopo un'invalidazione l'utente legge dal primary per
+ * app.datasource.replica.sticky-window (ReadYourWritesService): la cache non
+ * viene riempita da una replica che non ha ancora la scrittura.
+ * 
+ * Metriche Micrometer: cache.gets{cache="todos|todo-pages",
+ * result="hit|miss"}.
+ * 
+ * Gli errori di Redis non fanno fallire la richiesta: la cache viene
+ * semplicemente bypassata.
+ */
+@Slf4j
+@Service
+public class TodoCacheService {
+
+    private static final String CACHE_NAME = "todos";
+    private static final String PAGE_CACHE_NAME = "todo-pages";
+    private static final int STRIPES = 1024;
+    private static final long MIN_GENERATION_TTL_SECONDS = Duration.ofDays(1).toSeconds();
+
+    private static final TypeReference<PageResponse<TodoResponse>> PAGE_TYPE = new TypeReference<>() {
+    };
+
+    private final RedisService redisService;
+    private final ResourceVersionService resourceVersionService;
+    private final ReadYourWritesService readYourWritesService;
+    private final long ttlSeconds;
+    private final long listTtlSeconds;
+    private final long generationTtlSeconds;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter pageHits;
+    private final Counter pageMisses;
+
+    // Contatori di invalidazione, indicizzati per hash della chiave
+    private final AtomicLongArray invalidationStamps = new AtomicLongArray(STRIPES);
+
+    public TodoCacheService(
+            RedisService redisService,
+            ResourceVersionService resourceVersionService,
+            ReadYourWritesService readYourWritesService,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.todo.ttl}") Duration ttl,
+            @Value("${app.cache.todo.list-ttl}") Duration listTtl) {
+        this.redisService = redisService;
+        this.resourceVersionService = resourceVersionService;
+        this.readYourWritesService = readYourWritesService;
+        this.ttlSeconds = ttl.toSeconds();
+        this.listTtlSeconds = listTtl.toSeconds();
+        // La generazione deve sopravvivere alle pagine che la usano
+        this.generationTtlSeconds = Math.max(listTtlSeconds * 2, MIN_GENERATION_TTL_SECONDS);
+        this.hits = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.pageHits = Counter.builder("cache.gets")
+                .tag("cache", PAGE_CACHE_NAME)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.pageMisses = Counter.builder("cache.gets")
+                .tag("cache", PAGE_CACHE_NAME)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Restituisce il todo dalla cache oppure lo carica tramite il loader e lo
+     * salva in cache.
+     *
+     * @param userId id dell'utente proprietario
+     * @param todoId id del todo
+     * @param loader caricamento dal DB (può lanciare TodoNotFoundException, in
+     *               tal caso nulla viene salvato)
+     * @return il todo
+     */
+    public TodoResponse getOrLoad(Long userId, Long todoId, Supplier<TodoResponse> loader) {
+        String key = key(userId, todoId);
+
+        TodoResponse cached = read(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        int stripe = stripe(key);
+        long stamp = invalidationStamps.get(stripe);
+
+        TodoResponse todoResponse = loader.get();
+        write(key, todoResponse, ttlSeconds);
+
+        // Una scrittura è stata committata mentre leggevamo dal DB:
+        // il valore appena salvato potrebbe essere obsoleto
+        if (invalidationStamps.get(stripe) != stamp) {
+            delete(List.of(key));
+        }
+
+        return todoResponse;
+    }
+
+    /**
+     * Restituisce una pagina della lista dalla cache oppure la carica tramite il
+     * loader e la salva sotto la generazione corrente dell'utente.
+     *
+     * @param userId          id dell'utente proprietario
+     * @param page            numero di pagina (0-based)
+     * @param limit           dimensione della pagina
+     * @param completed       filtro opzionale
+     * @param sort            ordinamento già validato
+     * @param withTotal       se la pagina contiene il totale
+     * @param includeArchived se la pagina include i todo archiviati
+     * @param loader          caricamento dal DB
+     * @return la pagina
+     */
+    public PageResponse<TodoResponse> getOrLoadPage(Long userId, int page, int limit, Boolean completed, Sort sort,
+            boolean withTotal, boolean includeArchived, Supplier<PageResponse<TodoResponse>> loader) {
+        Long generation = currentGeneration(userId);
+        if (generation == null) {
+            // Redis non disponibile: si legge direttamente dal DB
+            return loader.get();
+        }
+
+        String key = pageKey(userId, generation, page, limit, completed, sort, withTotal, includeArchived);
+
+        PageResponse<TodoResponse> cached = readPage(key);
+        if (cached != null) {
+            pageHits.increment();
+            return cached;
+        }
+        pageMisses.increment();
+
+        PageResponse<TodoResponse> pageResponse = loader.get();
+        write(key, pageResponse, listTtlSeconds);
+        return pageResponse;
+    }
+
+    /**
+     * Invalida la cache dopo il commit della transazione corrente (subito se non
+     * c'è una transazione attiva): incrementa la generazione delle pagine
+     * dell'utente e cancella i singoli todo modificati.
+     *
+     * @param userId  id dell'utente proprietario
+     * @param todoIds id dei todo modificati o eliminati (vuoto per le creazioni)
+     */
+    public void invalidateAfterCommit(Long userId, Collection<Long> todoIds) {
+        List<String> keys = todoIds.stream()
+                .map(todoId -> key(userId, todoId))
+                .toList();
+        readYourWritesService.recordWriteAfterCommit(userId);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId, keys);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(userId, keys);
+            }
+        });
+    }
+
+    private void invalidate(Long userId, List<String> keys) {
+        bumpGeneration(userId);
+        if (!keys.isEmpty()) {
+            evict(keys);
+        }
+    }
+
+    /**
+     * Generazione corrente dei todo dell'utente: cambia dopo ogni scrittura
+     * committata, quindi identifica lo stato di tutte le sue letture (usata
+     * anche come ETag).
+     *
+     * @param userId id dell'utente proprietario
+     * @return la generazione, oppure null se Redis non è disponibile
+     */
+    public Long currentGeneration(Long userId) {
+        return resourceVersionService.current(generationKey(userId), generationTtlSeconds);
+    }
+
+    private void bumpGeneration(Long userId) {
+        resourceVersionService.increment(generationKey(userId), generationTtlSeconds);
+    }
+
+    private void evict(List<String> keys) {
+        // Prima si incrementano i contatori, poi si cancella: un lettore
+        // concorrente vede il cambio oppure il suo SET precede la DEL
+        keys.forEach(key -> invalidationStamps.incrementAndGet(stripe(key)));
+        delete(keys);
+    }
+
+    private PageResponse<TodoResponse> readPage(String key) {
+        try {
+            return redisService.get(key, PAGE_TYPE);
+        } catch (RuntimeException e) {
+            log.warn("Lettura cache pagina todo fallita (key: {}): {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private TodoResponse read(String key) {
+        try {
+            return redisService.get(key, TodoResponse.class);
+        } catch (RuntimeException e) {
+            log.warn("Lettura cache todo fallita (key: {}): {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, Object value, long ttl) {
+        try {
+            redisService.set(key, value, ttl);
+        } catch (RuntimeException e) {
+            log.warn("Scrittura cache todo fallita (key: {}): {}", key, e.getMessage());
+        }
+    }
+
+    private void delete(List<String> keys) {
+        try {
+            redisService.delete(keys);
+        } catch (RuntimeException e) {
+            log.warn("Invalidazione cache todo fallita (keys: {}): {}", keys, e.getMessage());
+        }
+    }
+
+    private static String key(Long userId, Long todoId) {
+        return "todo:" + userId + ":" + todoId;
+    }
+
+    private static String generationKey(Long userId) {
+        return "todos:gen:" + userId;
+    }
+
+    private static String pageKey(Long userId, long generation, int page, int limit, Boolean completed, Sort sort,
+            boolean withTotal, boolean includeArchived) {
+        String sortKey = sort.stream()
+                .map(order -> order.getProperty() + "." + order.getDirection())
+                .reduce((a, b) -> a + "," + b)
+                .orElse("");
+
+        return "todos:list:" + userId + ":g" + generation + ":p" + page + ":l" + limit
+                + ":c" + (completed == null ? "all" : completed) + ":s" + sortKey + ":t" + withTotal
+                + ":a" + includeArchived;
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+}
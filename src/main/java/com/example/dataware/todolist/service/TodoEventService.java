@@ -0,0 +1,363 @@
+package com.example.dataware.todolist.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.example.dataware.todolist.dto.response.TodoEventResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Eventi Server-Sent Events sulle modifiche ai todo (GET /todos/events).
+ * 
+ * - Le scritture pubblicano l'evento dopo il commit sul canale Redis
+ * todo-events (un solo canale per tutte le istanze): ogni istanza lo
+ * inoltra alle connessioni SSE locali dell'utente.
+ * - Le connessioni inattive non occupano thread (richieste asincrone): ogni
+ * connessione ha solo un emitter e una coda limitata
+ * (app.events.buffer-size). Gli eventi vengono scritti da un pool di thread
+ * dedicato, mai dal thread I/O di Lettuce; se un client lento riempie la
+ * coda la connessione viene chiusa e il client, riconnettendosi, recupera
+ * le modifiche con GET /todos/changes.
+ * - Timeout di invio (app.events.send-timeout): send() è bloccante, quindi
+ * un client che non legge terrebbe occupato un thread del pool. Un invio
+ * che dura troppo chiude la connessione e il pool riceve un thread in più
+ * finché la scrittura bloccata non termina (al più dopo il timeout del
+ * socket del container), così gli altri client non restano in attesa.
+ * - Heartbeat (commento SSE) ogni app.events.heartbeat: mantiene aperta la
+ * connessione attraverso i proxy e rileva i client disconnessi.
+ * - Le connessioni scadono dopo app.events.timeout (EventSource si
+ * riconnette automaticamente).
+ * 
+ * Pub/sub è at-most-once: un evento può andare perso (es. riconnessione a
+ * Redis), gli eventi sono una notifica e non sostituiscono la
+ * sincronizzazione.
+ * 
+ * Metriche Micrometer: todo.events.connections (gauge),
+ * todo.events.dropped (connessioni chiuse per coda piena o invio troppo
+ * lento).
+ */
+@Slf4j
+@Service
+public class TodoEventService {
+
+    private static final String CHANNEL = "todo-events";
+    private static final String SEPARATOR = "\n";
+    private static final int MAX_IDS = 500;
+    private static final long RECONNECT_MILLIS = 5_000;
+    // Valori speciali di Connection.sendStartedAt
+    private static final long NOT_SENDING = Long.MIN_VALUE;
+    private static final long STALLED = Long.MAX_VALUE;
+
+    /**
+     * Tipo di evento (nome dell'evento SSE).
+     */
+    public enum EventType {
+        created, updated, deleted
+    }
+
+    private final RedisPubSubService redisPubSubService;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Counter dropped;
+    private final ThreadPoolExecutor writers;
+    private final ScheduledExecutorService heartbeat;
+
+    private static final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Inizio dell'invio in corso (System.nanoTime), NOT_SENDING se nessun
+        // invio, STALLED se il watchdog ha chiuso la connessione durante l'invio
+        private final AtomicLong sendStartedAt = new AtomicLong(NOT_SENDING);
+
+        private Connection(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    public TodoEventService(
+            RedisPubSubService redisPubSubService,
+            MeterRegistry meterRegistry,
+            @Value("${app.events.timeout}") Duration timeout,
+            @Value("${app.events.heartbeat}") Duration heartbeatInterval,
+            @Value("${app.events.buffer-size}") int bufferSize,
+            @Value("${app.events.send-timeout}") Duration sendTimeout) {
+        this.redisPubSubService = redisPubSubService;
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.dropped = Counter.builder("todo.events.dropped").register(meterRegistry);
+        Gauge.builder("todo.events.connections", connectionCount, AtomicInteger::get).register(meterRegistry);
+
+        // Dimensione fissa, aumentata temporaneamente per gli invii bloccati
+        int writerThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemonThreadFactory("todo-events-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("todo-events-heartbeat-"));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        long checkMillis = Math.max(1, sendTimeout.toMillis() / 2);
+        this.heartbeat.scheduleAtFixedRate(this::closeStalledConnections, checkMillis, checkMillis,
+                TimeUnit.MILLISECONDS);
+
+        redisPubSubService.subscribe(CHANNEL, this::onMessage);
+    }
+
+    /**
+     * Apre una connessione SSE per l'utente.
+     */
+    public SseEmitter connect(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(userId, emitter, bufferSize);
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(e -> remove(connection));
+
+        // compute (e non computeIfAbsent + add): una remove concorrente non può
+        // eliminare il set tra la creazione e l'aggiunta
+        connections.compute(userId, (id, userConnections) -> {
+            Set<Connection> updated = userConnections != null ? userConnections : ConcurrentHashMap.newKeySet();
+            updated.add(connection);
+            return updated;
+        });
+        connectionCount.incrementAndGet();
+
+        // Primo messaggio: invia subito gli header e l'intervallo di riconnessione
+        enqueue(connection, SseEmitter.event().comment("connected").reconnectTime(RECONNECT_MILLIS));
+        return emitter;
+    }
+
+    /**
+     * Pubblica l'evento dopo il commit della transazione corrente (subito se
+     * non c'è una transazione attiva).
+     *
+     * @param userId id dell'utente proprietario
+     * @param type   tipo di modifica
+     * @param ids    id dei todo coinvolti
+     */
+    public void publishAfterCommit(Long userId, EventType type, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        // Oltre MAX_IDS il messaggio non contiene gli id
+        String idList = ids.size() > MAX_IDS
+                ? ""
+                : ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        String message = userId + SEPARATOR + type.name() + SEPARATOR + idList;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            redisPubSubService.publish(CHANNEL, message);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                redisPubSubService.publish(CHANNEL, message);
+            }
+        });
+    }
+
+    // Eseguito sul thread I/O di Lettuce: solo accodamento, nessuna scrittura
+    private void onMessage(String message) {
+        String[] parts = message.split(SEPARATOR, -1);
+        if (parts.length != 3) {
+            return;
+        }
+
+        Set<Connection> userConnections = connections.get(Long.valueOf(parts[0]));
+        if (userConnections == null || userConnections.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = parts[2].isEmpty()
+                ? List.of()
+                : Arrays.stream(parts[2].split(",")).map(Long::valueOf).toList();
+        TodoEventResponse data = TodoEventResponse.builder().ids(ids).build();
+
+        for (Connection connection : userConnections) {
+            enqueue(connection, SseEmitter.event().name(parts[1]).data(data));
+        }
+    }
+
+    private void sendHeartbeat() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                // Con un invio in corso la connessione è già attiva (o lenta):
+                // il ping riempirebbe solo la coda
+                if (connection.sendStartedAt.get() == NOT_SENDING) {
+                    enqueue(connection, SseEmitter.event().comment("ping"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Chiude le connessioni con un invio in corso da più di
+     * app.events.send-timeout e aggiunge un thread al pool al posto di
+     * quello bloccato (restituito da drain quando l'invio termina).
+     */
+    private void closeStalledConnections() {
+        long now = System.nanoTime();
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                long startedAt = connection.sendStartedAt.get();
+                if (startedAt == NOT_SENDING || startedAt == STALLED || now - startedAt < sendTimeoutNanos) {
+                    continue;
+                }
+
+                // CAS: se l'invio termina nel frattempo la connessione resta aperta
+                if (connection.sendStartedAt.compareAndSet(startedAt, STALLED)) {
+                    log.debug("Invio SSE oltre il timeout, connessione chiusa (utente {})", connection.userId);
+                    dropped.increment();
+                    remove(connection);
+                    resizeWriters(1);
+                }
+            }
+        }
+    }
+
+    private void enqueue(Connection connection, SseEventBuilder event) {
+        if (connection.closed.get()) {
+            return;
+        }
+
+        if (!connection.queue.offer(event)) {
+            // Client troppo lento: si chiude la connessione invece di
+            // accumulare eventi in memoria
+            dropped.increment();
+            close(connection);
+            return;
+        }
+
+        scheduleDrain(connection);
+    }
+
+    private void scheduleDrain(Connection connection) {
+        if (connection.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(connection));
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            SseEventBuilder event;
+            while (!connection.closed.get() && (event = connection.queue.poll()) != null) {
+                connection.sendStartedAt.set(System.nanoTime());
+                try {
+                    connection.emitter.send(event);
+                } finally {
+                    if (connection.sendStartedAt.getAndSet(NOT_SENDING) == STALLED) {
+                        // Connessione già rimossa dal watchdog: l'emitter si
+                        // completa ora che l'invio non lo blocca più
+                        complete(connection);
+                        resizeWriters(-1);
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnesso
+            close(connection);
+        } finally {
+            connection.draining.set(false);
+        }
+
+        // Evento accodato dopo l'ultimo poll ma prima del reset del flag
+        if (!connection.closed.get() && !connection.queue.isEmpty()) {
+            scheduleDrain(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (remove(connection)) {
+            complete(connection);
+        }
+    }
+
+    private void complete(Connection connection) {
+        try {
+            connection.emitter.complete();
+        } catch (RuntimeException e) {
+            log.debug("Chiusura connessione SSE fallita: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void resizeWriters(int delta) {
+        int size = writers.getCorePoolSize() + delta;
+        // Il massimo non può mai essere minore del core
+        if (delta > 0) {
+            writers.setMaximumPoolSize(size);
+            writers.setCorePoolSize(size);
+        } else {
+            writers.setCorePoolSize(size);
+            writers.setMaximumPoolSize(size);
+        }
+    }
+
+    private boolean remove(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return false;
+        }
+
+        connection.queue.clear();
+        connections.computeIfPresent(connection.userId, (userId, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+        connectionCount.decrementAndGet();
+        return true;
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        connections.values().forEach(userConnections -> userConnections.forEach(this::close));
+        writers.shutdown();
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.example.dataware.todolist.service;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.dataware.todolist.entity.User;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Invalidazione tra istanze della cache di secondo livello di User (vedere
+ * HibernateCacheConfig).
+ *
+ * - Sull'istanza che scrive, Hibernate aggiorna la cache nella transazione
+ * (entità salvate con il persistence context) oppure svuota le region della
+ * tabella users (query native con HINT_NATIVE_SPACES).
+ * - Le altre istanze ricevono l'id dell'utente sul canale
+ * l2-cache:users:evict dopo il commit e lo rimuovono dalla propria cache (i
+ * messaggi della stessa istanza sono ignorati).
+ * - L'email non cambia mai: la risoluzione email → id resta valida finché
+ * l'utente esiste, e viene svuotata solo dopo un'eliminazione (Hibernate
+ * permette di svuotare solo l'intera region del natural id).
+ * - Un messaggio perso (pub/sub è at-most-once) lascia un valore obsoleto al
+ * massimo per app.cache.user.ttl.
+ */
+@Slf4j
+@Service
+public class UserCacheService {
+
+    private static final String EVICTION_CHANNEL = "l2-cache:users:evict";
+    private static final String SEPARATOR = "\n";
+
+    private final RedisPubSubService redisPubSubService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public UserCacheService(RedisPubSubService redisPubSubService, EntityManagerFactory entityManagerFactory) {
+        this.redisPubSubService = redisPubSubService;
+        this.entityManagerFactory = entityManagerFactory;
+        redisPubSubService.subscribe(EVICTION_CHANNEL, this::onEviction);
+    }
+
+    /**
+     * Invalida l'utente nella cache delle altre istanze dopo il commit della
+     * transazione corrente (subito se non c'è una transazione attiva).
+     *
+     * @param userId  id dell'utente modificato
+     * @param deleted true se l'utente è stato eliminato (svuota anche la
+     *                region del natural id)
+     */
+    public void evictAfterCommit(Long userId, boolean deleted) {
+        String message = nodeId + SEPARATOR + userId + SEPARATOR + deleted;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            redisPubSubService.publish(EVICTION_CHANNEL, message);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                redisPubSubService.publish(EVICTION_CHANNEL, message);
+            }
+        });
+    }
+
+    private void onEviction(String message) {
+        String[] parts = message.split(SEPARATOR);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        try {
+            entityManagerFactory.getCache().evict(User.class, Long.valueOf(parts[1]));
+            if (Boolean.parseBoolean(parts[2])) {
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictNaturalIdData(User.class);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Invalidazione cache utente fallita (messaggio: {}): {}", message, e.getMessage());
+        }
+    }
+
+}
@@ -8,8 +8,10 @@ import com.example.dataware.todolist.dto.response.TokenResponse;
 import com.example.dataware.todolist.dto.validator.LoginDto;
 import com.example.dataware.todolist.dto.validator.UserDto;
 import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.entity.enums.UserStatus;
 import com.example.dataware.todolist.exception.custom.EmailConflictException;
 import com.example.dataware.todolist.exception.custom.InvalidCredentialsException;
+import com.example.dataware.todolist.exception.custom.UserNotFoundException;
 import com.example.dataware.todolist.filter.jwt.service.JwtService;
 import com.example.dataware.todolist.repository.UserRepository;
 import com.example.dataware.todolist.s3.S3Properties;
@@ -54,9 +56,16 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public TokenResponse login(LoginDto loginDto) {
-        User user = userRepository.findByEmail(loginDto.getEmail())
+        // Dal DB e non dalla cache: stato, password e refresh token devono
+        // essere quelli correnti (anche se modificati su un'altra istanza)
+        User user = userRepository.findCurrentByEmail(loginDto.getEmail())
                 .orElseThrow(() -> new InvalidCredentialsException("Email o password non validi"));
 
+        // Account in eliminazione: stessa risposta di un utente inesistente
+        if (user.getStatus() == UserStatus.DELETING) {
+            throw new InvalidCredentialsException("Email o password non validi");
+        }
+
         if (!passwordEncoder.matches(loginDto.getPassword(), user.getPassword())) {
             throw new InvalidCredentialsException("Email o password non validi");
         }
@@ -67,16 +76,27 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public TokenResponse refreshToken(String email) {
-        User user = userService.findOne(email);
+        User user = findCurrent(email);
         return generateAndPersistTokens(user);
     }
 
     @Override
     @Transactional
     public void logout(String email) {
-        User user = userService.findOne(email);
+        User user = findCurrent(email);
         user.setRefreshToken(null);
         userRepository.save(user);
+        // updatedAt cambia: il profilo in cache nei client non è più valido
+        userService.invalidateProfile(user.getId());
+    }
+
+    // Come UserService.findOne, ma senza cache di secondo livello: l'utente
+    // viene salvato subito dopo, un valore obsoleto sovrascriverebbe le
+    // modifiche fatte su un'altra istanza
+    private User findCurrent(String email) {
+        return userRepository.findCurrentByEmail(email)
+                .filter(user -> user.getStatus() != UserStatus.DELETING)
+                .orElseThrow(() -> new UserNotFoundException("Utente non trovato."));
     }
 
     private TokenResponse generateAndPersistTokens(User user) {
@@ -95,6 +115,7 @@ public class AuthServiceImpl implements AuthService {
         String encryptedToken = encryptionService.encrypt(refreshToken);
         user.setRefreshToken(encryptedToken);
         userRepository.save(user);
+        userService.invalidateProfile(user.getId());
     }
 
 }
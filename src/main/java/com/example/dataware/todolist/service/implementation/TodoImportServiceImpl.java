@@ -0,0 +1,119 @@
+package com.example.dataware.todolist.service.implementation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.dataware.todolist.dto.response.TodoImportErrorResponse;
+import com.example.dataware.todolist.dto.response.TodoImportResponse;
+import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.service.interfaces.TodoImportService;
+import com.example.dataware.todolist.service.interfaces.TodoService;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
+import com.example.dataware.todolist.util.importer.TodoImportReader;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
+
+@Slf4j // Logger
+@Service
+public class TodoImportServiceImpl implements TodoImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TodoService todoService;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public TodoImportServiceImpl(TodoService todoService, Validator validator, EntityManager entityManager,
+            ObjectMapper objectMapper, @Value("${app.import.batch-size}") int batchSize) {
+        this.todoService = todoService;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    // Non transazionale: ogni batch viene salvato e committato da
+    // TodoService.createAll in una transazione separata, quindi un errore a
+    // metà import non annulla i batch già salvati
+    @Override
+    public TodoImportResponse importTodos(Long userId, TodoExportFormat format, InputStream inputStream)
+            throws IOException {
+        TodoImportReader reader = new TodoImportReader(format, inputStream, objectMapper);
+        reader.readHeader();
+
+        List<TodoDto> batch = new ArrayList<>(batchSize);
+        List<TodoImportErrorResponse> errors = new ArrayList<>();
+        long accepted = 0;
+        long rejected = 0;
+
+        TodoImportReader.Line line;
+        while ((line = reader.next()) != null) {
+            String error = line.error() != null ? line.error() : validate(line.todo());
+
+            if (error != null) {
+                rejected++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(TodoImportErrorResponse.builder()
+                            .line(line.number())
+                            .error(error)
+                            .build());
+                }
+                continue;
+            }
+
+            batch.add(line.todo());
+            if (batch.size() == batchSize) {
+                accepted += saveBatch(batch, userId);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            accepted += saveBatch(batch, userId);
+        }
+
+        log.info("Import todo utente {}: {} righe importate, {} scartate", userId, accepted, rejected);
+
+        return TodoImportResponse.builder()
+                .accepted(accepted)
+                .rejected(rejected)
+                .errors(errors)
+                .errorsTruncated(rejected > errors.size())
+                .build();
+    }
+
+    private int saveBatch(List<TodoDto> batch, Long userId) {
+        todoService.createAll(batch, userId);
+        int saved = batch.size();
+        batch.clear();
+
+        // Con open-in-view il persistence context resta aperto per tutta la
+        // richiesta: senza clear() i todo salvati resterebbero in memoria
+        entityManager.clear();
+        return saved;
+    }
+
+    private String validate(TodoDto todoDto) {
+        Set<ConstraintViolation<TodoDto>> violations = validator.validate(todoDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+}
@@ -1,26 +1,70 @@
 package com.example.dataware.todolist.service.implementation;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import com.example.dataware.todolist.dto.response.CursorResponse;
+import com.example.dataware.todolist.dto.response.PageResponse;
+import com.example.dataware.todolist.dto.response.TodoChangesResponse;
+import com.example.dataware.todolist.dto.response.TodoResponse;
+import com.example.dataware.todolist.dto.response.TodoStatsResponse;
+import com.example.dataware.todolist.dto.validator.TodoBatchUpdateItemDto;
 import com.example.dataware.todolist.dto.validator.TodoDto;
 import com.example.dataware.todolist.dto.validator.TodoUpdateDto;
 import com.example.dataware.todolist.entity.Todo;
+import com.example.dataware.todolist.entity.TodoTombstone;
 import com.example.dataware.todolist.entity.User;
 import com.example.dataware.todolist.exception.custom.InvalidSortablePropertyException;
+import com.example.dataware.todolist.exception.custom.SyncTokenExpiredException;
 import com.example.dataware.todolist.exception.custom.TodoNotFoundException;
+import com.example.dataware.todolist.exception.custom.TodoVersionMismatchException;
+import com.example.dataware.todolist.exception.custom.UserNotFoundException;
 import com.example.dataware.todolist.repository.TodoRepository;
+import com.example.dataware.todolist.repository.TodoTombstoneRepository;
+import com.example.dataware.todolist.repository.TodoViewRepository;
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.repository.projection.ArchivedTodo;
+import com.example.dataware.todolist.repository.projection.TodoChange;
+import com.example.dataware.todolist.repository.projection.TodoSearchHit;
+import com.example.dataware.todolist.service.TodoCacheService;
+import com.example.dataware.todolist.service.TodoEventService;
+import com.example.dataware.todolist.service.TodoEventService.EventType;
 import com.example.dataware.todolist.service.interfaces.TodoService;
-import com.example.dataware.todolist.service.interfaces.UserService;
+import com.example.dataware.todolist.service.interfaces.TodoStatsService;
+import com.example.dataware.todolist.util.cursor.TodoCursorCodec;
+import com.example.dataware.todolist.util.export.TodoExportWriter;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
+import com.example.dataware.todolist.util.search.TodoSearchQuery;
 import com.example.dataware.todolist.util.sort.TodoSortableProperty;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
 
 @Slf4j // Logger
 @Service
@@ -28,80 +72,496 @@ import lombok.extern.slf4j.Slf4j;
 public class TodoServiceImpl implements TodoService {
 
     private final TodoRepository todoRepository;
-    private final UserService userService;
+    private final TodoTombstoneRepository todoTombstoneRepository;
+    private final TodoViewRepository todoViewRepository;
+    private final UserRepository userRepository;
+    private final TodoCacheService todoCacheService;
+    private final TodoEventService todoEventService;
+    private final TodoStatsService todoStatsService;
+    private final ObjectMapper objectMapper;
 
+    // Non transazionale: in caso di hit la pagina arriva da Redis senza
+    // acquisire una connessione al DB
     @Override
-    @Transactional(readOnly = true)
-    public Page<Todo> findAll(String email, int page, int limit, Boolean completed, Sort sort) {
-        User user = userService.findOne(email);
+    public PageResponse<TodoResponse> findAll(Long userId, int page, int limit, Boolean completed, Sort sort,
+            boolean withTotal, boolean includeArchived) {
+        Sort resolvedSort = resolveSort(sort);
 
-        // fallback automatico se sort null o vuoto
-        // (esempio: /todos oppure /todos?sort=<empty>)
-        if (sort == null || !sort.isSorted()) {
-            sort = Sort.by("updatedAt").descending();
-        } else {
-            // validazione proprietà non valide
-            List<String> invalidSortableProperty = sort.stream()
-                    .map(order -> order.getProperty())
-                    .filter(property -> !TodoSortableProperty.isValid(property))
-                    .toList();
-
-            if (!invalidSortableProperty.isEmpty()) {
-                throw new InvalidSortablePropertyException(
-                        "Proprietà di ordinamento non valide: " + String.join(", ", invalidSortableProperty));
+        return todoCacheService.getOrLoadPage(userId, page, limit, completed, resolvedSort, withTotal,
+                includeArchived, () -> {
+            Pageable pageable = PageRequest.of(page, limit, resolvedSort);
+
+            if (includeArchived) {
+                return findAllIncludingArchived(userId, pageable, completed, withTotal);
+            }
+
+            // Senza totale: Slice (limit + 1 righe), nessuna COUNT
+            if (!withTotal) {
+                Slice<TodoResponse> todos = completed == null
+                        ? todoRepository.findResponseSliceByUserId(userId, pageable)
+                        : todoRepository.findResponseSliceByUserIdAndCompleted(userId, completed, pageable);
+                return PageResponse.of(todos);
             }
+
+            // applica filtro completed se presente (proiezione diretta su TodoResponse)
+            List<TodoResponse> content = completed == null
+                    ? todoRepository.findResponsesByUserId(userId, pageable)
+                    : todoRepository.findResponsesByUserIdAndCompleted(userId, completed, pageable);
+
+            // Il totale viene letto dalle statistiche per utente (nessuna COUNT)
+            // e solo se non è deducibile dalla pagina (es: prima pagina incompleta)
+            Page<TodoResponse> todos = PageableExecutionUtils.getPage(content, pageable,
+                    () -> todoStatsService.count(userId, completed));
+            return PageResponse.of(todos);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<TodoResponse> search(Long userId, String text, int page, int limit, Boolean completed,
+            boolean withTotal) {
+        Pageable pageable = PageRequest.of(page, limit);
+        String query = TodoSearchQuery.toTsQuery(text);
+        if (query == null) {
+            PageResponse<TodoResponse> empty = PageResponse.of(new SliceImpl<TodoResponse>(List.of(), pageable, false));
+            return withTotal ? empty.withTotal(0) : empty;
+        }
+
+        // limit + 1 righe per sapere se esiste una pagina successiva
+        List<TodoSearchHit> hits = todoRepository.search(userId, query, completed, null, null, limit + 1,
+                pageable.getOffset());
+        boolean hasNext = hits.size() > limit;
+        List<TodoResponse> content = loadSearchHits(userId, hits.subList(0, Math.min(hits.size(), limit)));
+
+        PageResponse<TodoResponse> pageResponse = PageResponse.of(new SliceImpl<>(content, pageable, hasNext));
+        if (!withTotal) {
+            return pageResponse;
+        }
+
+        // Prima pagina incompleta: il totale è già noto, nessuna COUNT
+        long total = page == 0 && !hasNext
+                ? content.size()
+                : todoRepository.countSearch(userId, query, completed);
+        return pageResponse.withTotal(total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorResponse<TodoResponse> searchScroll(Long userId, String text, String cursor, int limit,
+            Boolean completed) {
+        KeysetScrollPosition position = TodoCursorCodec.decodeSearch(cursor);
+        String query = TodoSearchQuery.toTsQuery(text);
+        if (query == null) {
+            return CursorResponse.of(List.of(), limit, null);
+        }
+
+        Float afterRank = (Float) position.getKeys().get(TodoCursorCodec.SEARCH_RANK);
+        Long afterId = (Long) position.getKeys().get(TodoSortableProperty.id.name());
+
+        List<TodoSearchHit> hits = todoRepository.search(userId, query, completed, afterRank, afterId, limit + 1, 0);
+        boolean hasNext = hits.size() > limit;
+        List<TodoSearchHit> pageHits = hits.subList(0, Math.min(hits.size(), limit));
+
+        String nextCursor = null;
+        if (hasNext) {
+            TodoSearchHit last = pageHits.get(pageHits.size() - 1);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(TodoCursorCodec.SEARCH_RANK, last.getRank());
+            keys.put(TodoSortableProperty.id.name(), last.getId());
+            nextCursor = TodoCursorCodec.encode(ScrollPosition.forward(keys));
         }
 
-        Pageable pageable = PageRequest.of(page, limit, sort);
+        return CursorResponse.of(loadSearchHits(userId, pageHits), limit, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Todo> scroll(Long userId, String cursor, int limit, Boolean completed, Sort sort) {
+        Sort resolvedSort = resolveSort(sort);
+        KeysetScrollPosition position = TodoCursorCodec.decode(cursor, resolvedSort);
 
         // applica filtro completed se presente
         if (completed == null) {
-            return todoRepository.findAllByUser(user, pageable);
+            return todoRepository.findAllByUserId(userId, position, resolvedSort, Limit.of(limit));
+        }
+        return todoRepository.findAllByUserIdAndCompleted(userId, completed, position, resolvedSort,
+                Limit.of(limit));
+    }
+
+    // Non transazionale (vedere findAll)
+    @Override
+    public TodoResponse findOne(Long todoId, Long userId, boolean includeArchived) {
+        try {
+            return todoCacheService.getOrLoad(userId, todoId,
+                    () -> todoRepository.findResponseByIdAndUserId(todoId, userId)
+                            .orElseThrow(() -> new TodoNotFoundException("Todo non trovato.")));
+        } catch (TodoNotFoundException e) {
+            // Todo archiviato: letto senza cache, la chiave del singolo todo è
+            // condivisa con le letture senza includeArchived
+            if (includeArchived) {
+                return todoViewRepository.findArchivedResponseByIdAndUserId(todoId, userId)
+                        .orElseThrow(() -> e);
+            }
+            throw e;
+        }
+    }
+
+    // Versione delle letture dei todo dell'utente (ETag): nessun accesso al DB
+    @Override
+    public Long version(Long userId) {
+        return todoCacheService.currentGeneration(userId);
+    }
+
+    @Override
+    public TodoStatsResponse stats(Long userId) {
+        return todoStatsService.findOne(userId);
+    }
+
+    // Non readOnly: la transazione usa il primary, dove l'advisory lock si
+    // coordina con le scritture (una replica potrebbe non avere ancora i
+    // change_seq già committati)
+    @Override
+    @Transactional
+    public TodoChangesResponse changes(Long userId, Long since, int limit) {
+        // Dopo il lock tutte le modifiche già numerate di questo utente sono
+        // committate: nessun change_seq inferiore al token può comparire dopo
+        todoRepository.lockChangesShared(userId);
+
+        // Senza token: solo il token corrente, da usare dopo aver scaricato
+        // la lista completa
+        if (since == null) {
+            return TodoChangesResponse.builder()
+                    .changed(List.of())
+                    .deleted(List.of())
+                    .nextToken(todoTombstoneRepository.currentChangeSeq())
+                    .hasMore(false)
+                    .build();
+        }
+
+        List<TodoChange> changes = todoRepository.findChangesByUserId(userId, since, Limit.of(limit + 1));
+        List<TodoTombstone> tombstones = todoTombstoneRepository
+                .findByUserIdAndChangeSeqGreaterThanOrderByChangeSeq(userId, since, Limit.of(limit + 1));
+
+        // L'orizzonte viene letto dopo le tombstone: una purge committata
+        // prima della loro lettura è sempre visibile qui
+        if (since < todoTombstoneRepository.findPurgedChangeSeq()) {
+            throw new SyncTokenExpiredException(
+                    "Token di sincronizzazione scaduto: è necessaria una sincronizzazione completa.");
         }
-        return todoRepository.findAllByUserAndCompleted(user, completed, pageable);
+
+        // Merge delle due liste in ordine di change_seq, al massimo limit
+        // elementi in totale
+        List<TodoResponse> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        long lastSeq = since;
+        int i = 0;
+        int j = 0;
+        while (changed.size() + deleted.size() < limit && (i < changes.size() || j < tombstones.size())) {
+            boolean nextIsChange = j >= tombstones.size()
+                    || (i < changes.size() && changes.get(i).getChangeSeq() < tombstones.get(j).getChangeSeq());
+            if (nextIsChange) {
+                TodoChange change = changes.get(i++);
+                changed.add(change.toResponse());
+                lastSeq = change.getChangeSeq();
+            } else {
+                TodoTombstone tombstone = tombstones.get(j++);
+                deleted.add(tombstone.getTodoId());
+                lastSeq = tombstone.getChangeSeq();
+            }
+        }
+
+        boolean hasMore = i < changes.size() || j < tombstones.size();
+
+        // Ultima pagina: il token avanza al change_seq corrente, così resta
+        // valido anche se l'utente non modifica nulla per più della retention
+        long nextToken = hasMore ? lastSeq : Math.max(lastSeq, todoTombstoneRepository.currentChangeSeq());
+
+        return TodoChangesResponse.builder()
+                .changed(changed)
+                .deleted(deleted)
+                .nextToken(nextToken)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public long purgeTombstones(Instant before, int limit) {
+        return todoTombstoneRepository.purge(before, limit);
+    }
+
+    @Override
+    @Transactional
+    public int archiveCompleted(Instant before, int limit) {
+        todoRepository.createArchivePartitions(before);
+        List<ArchivedTodo> archived = todoRepository.archiveCompleted(before, limit);
+
+        // Per le liste, la sincronizzazione e gli eventi SSE un todo
+        // archiviato esce dai todo attivi come dopo una cancellazione
+        Map<Long, List<Long>> todoIdsByUser = archived.stream()
+                .collect(Collectors.groupingBy(todo -> todo.getUserId(),
+                        Collectors.mapping(todo -> todo.getId(), Collectors.toList())));
+        todoIdsByUser.forEach((userId, todoIds) -> {
+            todoCacheService.invalidateAfterCommit(userId, todoIds);
+            todoEventService.publishAfterCommit(userId, EventType.deleted, todoIds);
+        });
+
+        return archived.size();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Todo findOne(Long todoId, String email) {
-        User user = userService.findOne(email);
-        return todoRepository.findOneByIdAndUser(todoId, user)
-                .orElseThrow(() -> new TodoNotFoundException("Todo non trovato."));
+    public void export(Long userId, TodoExportFormat format, OutputStream outputStream) throws IOException {
+        TodoExportWriter writer = new TodoExportWriter(format, outputStream, objectMapper);
+        writer.writeHeader();
+
+        // Proiezioni DTO: nessuna entità nel persistence context, la memoria
+        // resta costante indipendentemente dal numero di todo
+        try (Stream<TodoResponse> todos = todoRepository.streamResponsesByUserId(userId)) {
+            Iterator<TodoResponse> iterator = todos.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+
+        writer.flush();
     }
 
     @Override
     @Transactional
-    public Todo create(TodoDto todoDto, String email) {
-        User user = userService.findOne(email);
+    public Todo create(TodoDto todoDto, Long userId) {
+        // Proxy lazy: nessuna SELECT su users, serve solo la FK user_id
+        User user = userRepository.getReferenceById(userId);
         Todo todo = Todo.builder()
                 .title(todoDto.getTitle())
                 .user(user)
                 .build();
-        return todoRepository.save(todo);
+
+        try {
+            Todo created = todoRepository.saveAndFlush(todo);
+            todoCacheService.invalidateAfterCommit(userId, List.of());
+            todoEventService.publishAfterCommit(userId, EventType.created, List.of(created.getId()));
+            return created;
+        } catch (DataIntegrityViolationException e) {
+            // La FK su user_id fallisce se l'utente del JWT è stato eliminato
+            throw new UserNotFoundException("Utente non trovato.");
+        }
+    }
+
+    @Override
+    @Transactional
+    public Todo update(Long todoId, TodoUpdateDto todoUpdateDto, Long expectedVersion, Long userId) {
+        // Nessun campo da aggiornare: il todo resta invariato (niente nuova
+        // versione né evento)
+        if (todoUpdateDto.getTitle() == null && todoUpdateDto.getCompleted() == null) {
+            Todo todo = findEntity(todoId, userId);
+            if (expectedVersion != null && !expectedVersion.equals(todo.getVersion())) {
+                throw versionMismatch();
+            }
+            return todo;
+        }
+
+        // Una sola UPDATE ... RETURNING: aggiorna solo i campi presenti nel DTO
+        Todo updated = todoRepository.updateByIdAndUserId(todoId, userId, todoUpdateDto.getTitle(),
+                todoUpdateDto.getCompleted(), Instant.now(), expectedVersion)
+                .orElseThrow(() -> notFoundOrVersionMismatch(todoId, expectedVersion, userId));
+
+        todoCacheService.invalidateAfterCommit(userId, List.of(todoId));
+        todoEventService.publishAfterCommit(userId, EventType.updated, List.of(todoId));
+        return updated;
     }
 
     @Override
     @Transactional
-    public Todo update(Long todoId, TodoUpdateDto todoUpdateDto, String email) {
-        Todo todo = findOne(todoId, email);
+    public void delete(Long todoId, Long expectedVersion, Long userId) {
+        // Una sola DELETE, senza caricare il todo
+        if (todoRepository.deleteByIdAndUserId(todoId, userId, expectedVersion) == 0) {
+            throw notFoundOrVersionMismatch(todoId, expectedVersion, userId);
+        }
+
+        todoCacheService.invalidateAfterCommit(userId, List.of(todoId));
+        todoEventService.publishAfterCommit(userId, EventType.deleted, List.of(todoId));
+    }
+
+    @Override
+    @Transactional
+    public List<Todo> createAll(List<TodoDto> todoDtos, Long userId) {
+        User user = userRepository.getReferenceById(userId);
+        List<Todo> todos = todoDtos.stream()
+                .<Todo>map(todoDto -> Todo.builder()
+                        .title(todoDto.getTitle())
+                        .user(user)
+                        .build())
+                .toList();
 
-        // Aggiorna solo i campi presenti nel DTO
-        if (todoUpdateDto.getTitle() != null) {
-            todo.setTitle(todoUpdateDto.getTitle());
+        try {
+            // Gli INSERT vengono raggruppati in batch JDBC
+            // (spring.jpa.properties.hibernate.jdbc.batch_size)
+            List<Todo> created = todoRepository.saveAllAndFlush(todos);
+            todoCacheService.invalidateAfterCommit(userId, List.of());
+            todoEventService.publishAfterCommit(userId, EventType.created,
+                    created.stream().map(todo -> todo.getId()).toList());
+            return created;
+        } catch (DataIntegrityViolationException e) {
+            throw new UserNotFoundException("Utente non trovato.");
         }
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Todo> updateAll(List<TodoBatchUpdateItemDto> items, Long userId) {
+        Set<Long> ids = items.stream()
+                .map(item -> item.getId())
+                .collect(Collectors.toSet());
+
+        // Una sola SELECT per tutti gli id, filtrata per utente
+        Map<Long, Todo> todos = todoRepository.findAllByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(todo -> todo.getId(), Function.identity()));
+
+        // Applica le modifiche nell'ordine della richiesta (a parità di id vince
+        // l'ultima); il dirty checking genera UPDATE raggruppati in batch JDBC
+        for (TodoBatchUpdateItemDto item : items) {
+            Todo todo = todos.get(item.getId());
+            if (todo == null) {
+                continue;
+            }
+
+            if (item.getTitle() != null) {
+                todo.setTitle(item.getTitle());
+            }
 
-        if (todoUpdateDto.getCompleted() != null) {
-            todo.setCompleted(todoUpdateDto.getCompleted());
+            if (item.getCompleted() != null) {
+                todo.setCompleted(item.getCompleted());
+            }
         }
 
-        return todoRepository.save(todo);
+        todoRepository.flush();
+        todoCacheService.invalidateAfterCommit(userId, todos.keySet());
+        todoEventService.publishAfterCommit(userId, EventType.updated, todos.keySet());
+        return todos;
     }
 
     @Override
     @Transactional
-    public void delete(Long todoId, String email) {
-        Todo todo = findOne(todoId, email);
-        todoRepository.delete(todo);
+    public Set<Long> deleteAll(List<Long> todoIds, Long userId) {
+        Set<Long> deletedIds = new HashSet<>(
+                todoRepository.deleteAllByUserIdAndIdIn(userId, new HashSet<>(todoIds)));
+        todoCacheService.invalidateAfterCommit(userId, deletedIds);
+        todoEventService.publishAfterCommit(userId, EventType.deleted, deletedIds);
+        return deletedIds;
+    }
+
+    @Override
+    @Transactional
+    public int markAll(boolean completed, Boolean filterCompleted, String text, Long userId) {
+        // Testo senza termini ricercabili: come per la ricerca, nessun todo
+        String query = text == null ? null : TodoSearchQuery.toTsQuery(text);
+        if (text != null && query == null) {
+            return 0;
+        }
+
+        List<Long> updatedIds = todoRepository.updateCompletedByUserId(userId, completed, filterCompleted, query,
+                Instant.now());
+        todoCacheService.invalidateAfterCommit(userId, updatedIds);
+        todoEventService.publishAfterCommit(userId, EventType.updated, updatedIds);
+        return updatedIds.size();
+    }
+
+    /**
+     * Pagina di todo attivi e archiviati (vista todos_all). Il totale somma le
+     * statistiche dei todo attivi e il numero di todo archiviati, che sono
+     * tutti completati.
+     */
+    private PageResponse<TodoResponse> findAllIncludingArchived(Long userId, Pageable pageable, Boolean completed,
+            boolean withTotal) {
+        if (!withTotal) {
+            Slice<TodoResponse> todos = completed == null
+                    ? todoViewRepository.findResponseSliceByUserId(userId, pageable)
+                    : todoViewRepository.findResponseSliceByUserIdAndCompleted(userId, completed, pageable);
+            return PageResponse.of(todos);
+        }
+
+        List<TodoResponse> content = completed == null
+                ? todoViewRepository.findResponsesByUserId(userId, pageable)
+                : todoViewRepository.findResponsesByUserIdAndCompleted(userId, completed, pageable);
+
+        Page<TodoResponse> todos = PageableExecutionUtils.getPage(content, pageable,
+                () -> todoStatsService.count(userId, completed) + (Boolean.FALSE.equals(completed)
+                        ? 0
+                        : todoViewRepository.countByUserIdAndArchivedTrue(userId)));
+        return PageResponse.of(todos);
+    }
+
+    /**
+     * Carica i todo trovati dalla ricerca mantenendo l'ordine per rilevanza
+     * (i todo eliminati nel frattempo vengono ignorati).
+     */
+    private List<TodoResponse> loadSearchHits(Long userId, List<TodoSearchHit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = hits.stream()
+                .map(hit -> hit.getId())
+                .toList();
+        Map<Long, TodoResponse> todos = todoRepository.findResponsesByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(todo -> todo.getId(), Function.identity()));
+
+        return ids.stream()
+                .map(id -> todos.get(id))
+                .filter(todo -> todo != null)
+                .toList();
+    }
+
+    private Todo findEntity(Long todoId, Long userId) {
+        return todoRepository.findOneByIdAndUserId(todoId, userId)
+                .orElseThrow(() -> new TodoNotFoundException("Todo non trovato."));
+    }
+
+    /**
+     * Eccezione per una scrittura diretta che non ha interessato nessuna riga:
+     * senza versione attesa il todo non esiste (o è di un altro utente),
+     * altrimenti una SELECT distingue il todo inesistente dalla versione
+     * diversa.
+     */
+    private RuntimeException notFoundOrVersionMismatch(Long todoId, Long expectedVersion, Long userId) {
+        if (expectedVersion != null && todoRepository.existsByIdAndUserId(todoId, userId)) {
+            return versionMismatch();
+        }
+        return new TodoNotFoundException("Todo non trovato.");
+    }
+
+    private static TodoVersionMismatchException versionMismatch() {
+        return new TodoVersionMismatchException("Il todo è stato modificato: la versione non corrisponde a If-Match.");
+    }
+
+    /**
+     * Restituisce l'ordinamento da applicare alle liste di todo.
+     * Se sort è null o vuoto (esempio: /todos oppure /todos?sort=<empty>)
+     * applica il fallback su updatedAt decrescente, altrimenti valida le
+     * proprietà richieste.
+     * 
+     * @param sort l'ordinamento ricevuto dal controller
+     * @return l'ordinamento validato
+     * @throws InvalidSortablePropertyException se una proprietà non è ordinabile
+     */
+    private Sort resolveSort(Sort sort) {
+        if (sort == null || !sort.isSorted()) {
+            return Sort.by("updatedAt").descending();
+        }
+
+        // validazione proprietà non valide
+        List<String> invalidSortableProperty = sort.stream()
+                .map(order -> order.getProperty())
+                .filter(property -> !TodoSortableProperty.isValid(property))
+                .toList();
+
+        if (!invalidSortableProperty.isEmpty()) {
+            throw new InvalidSortablePropertyException(
+                    "Proprietà di ordinamento non valide: " + String.join(", ", invalidSortableProperty));
+        }
+
+        return sort;
     }
 
 }
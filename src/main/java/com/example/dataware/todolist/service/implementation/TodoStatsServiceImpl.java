@@ -0,0 +1,72 @@
+package com.example.dataware.todolist.service.implementation;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dataware.todolist.dto.response.TodoStatsResponse;
+import com.example.dataware.todolist.entity.TodoStats;
+import com.example.dataware.todolist.repository.TodoStatsRepository;
+import com.example.dataware.todolist.service.interfaces.TodoStatsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j // Logger
+@Service
+@RequiredArgsConstructor
+public class TodoStatsServiceImpl implements TodoStatsService {
+
+    private final TodoStatsRepository todoStatsRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public TodoStatsResponse findOne(Long userId) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        // Nessuna riga: l'utente non ha ancora creato todo
+        TodoStats stats = todoStatsRepository.findById(userId).orElse(null);
+        if (stats == null) {
+            return TodoStatsResponse.builder()
+                    .date(today)
+                    .build();
+        }
+
+        // I contatori giornalieri valgono solo per il giorno in cui sono stati
+        // aggiornati l'ultima volta
+        boolean current = today.equals(stats.getStatsDate());
+        return TodoStatsResponse.builder()
+                .total(stats.getTotal())
+                .completed(stats.getCompleted())
+                .open(stats.getTotal() - stats.getCompleted())
+                .createdToday(current ? stats.getCreatedToday() : 0)
+                .completedToday(current ? stats.getCompletedToday() : 0)
+                .date(today)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count(Long userId, Boolean completed) {
+        TodoStats stats = todoStatsRepository.findById(userId).orElse(null);
+        if (stats == null) {
+            return 0;
+        }
+
+        if (completed == null) {
+            return stats.getTotal();
+        }
+        return completed ? stats.getCompleted() : stats.getTotal() - stats.getCompleted();
+    }
+
+    @Override
+    @Transactional
+    public int reconcile(List<Long> userIds) {
+        todoStatsRepository.lockByUserIdIn(userIds);
+        return todoStatsRepository.reconcile(userIds);
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.example.dataware.todolist.service.implementation;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dataware.todolist.dto.response.UserDeletionResponse;
+import com.example.dataware.todolist.entity.UserDeletion;
+import com.example.dataware.todolist.repository.TodoRepository;
+import com.example.dataware.todolist.repository.TodoStatsRepository;
+import com.example.dataware.todolist.repository.UserDeletionRepository;
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.s3.S3Service;
+import com.example.dataware.todolist.service.TodoCacheService;
+import com.example.dataware.todolist.service.UserCacheService;
+import com.example.dataware.todolist.service.interfaces.UserDeletionService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j // Logger
+@Service
+@RequiredArgsConstructor
+public class UserDeletionServiceImpl implements UserDeletionService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final UserDeletionRepository userDeletionRepository;
+    private final UserRepository userRepository;
+    private final TodoRepository todoRepository;
+    private final TodoStatsRepository todoStatsRepository;
+    private final TodoCacheService todoCacheService;
+    private final UserCacheService userCacheService;
+    private final S3Service S3Service;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<UserDeletionResponse> findAll(int page, int limit) {
+        Pageable pageable = PageRequest.of(page, limit, Sort.by(Sort.Direction.DESC, "requestedAt"));
+        Slice<UserDeletion> deletions = userDeletionRepository.findAllBy(pageable);
+
+        // Todo rimanenti dalle statistiche per utente (aggiornate dai trigger a
+        // ogni blocco eliminato): una sola SELECT per la pagina, nessuna COUNT
+        List<Long> pendingIds = deletions.stream()
+                .filter(deletion -> deletion.getCompletedAt() == null)
+                .map(deletion -> deletion.getUserId())
+                .toList();
+        Map<Long, Long> remaining = todoStatsRepository.findAllById(pendingIds).stream()
+                .collect(Collectors.toMap(stats -> stats.getUserId(), stats -> stats.getTotal()));
+
+        return deletions.map(deletion -> UserDeletionResponse.builder()
+                .userId(deletion.getUserId())
+                .email(deletion.getEmail())
+                .completed(deletion.getCompletedAt() != null)
+                .requestedAt(deletion.getRequestedAt())
+                .completedAt(deletion.getCompletedAt())
+                .todosDeleted(deletion.getTodosDeleted())
+                .todosRemaining(deletion.getCompletedAt() == null
+                        ? remaining.getOrDefault(deletion.getUserId(), 0L)
+                        : null)
+                .filesDeleted(deletion.isFilesDeleted())
+                .attempts(deletion.getAttempts())
+                .lastError(deletion.getLastError())
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findPending(int limit) {
+        return userDeletionRepository.findPendingUserIds(limit);
+    }
+
+    /**
+     * Elimina un blocco di todo dell'utente in una transazione breve e
+     * aggiorna l'avanzamento: prima i todo attivi, poi quelli archiviati.
+     *
+     * @return il numero di todo eliminati (minore di limit se non ne restano)
+     */
+    @Override
+    @Transactional
+    public int purgeTodos(Long userId, int limit) {
+        int deleted = todoRepository.deleteBatchByUserId(userId, limit);
+        if (deleted < limit) {
+            deleted += todoRepository.deleteArchivedBatchByUserId(userId, limit - deleted);
+        }
+
+        if (deleted > 0) {
+            userDeletionRepository.addTodosDeleted(userId, deleted);
+        }
+        return deleted;
+    }
+
+    // Non transazionale: le chiamate a S3 (anche molte pagine di oggetti) non
+    // tengono aperta una transazione né una connessione del pool. Se
+    // falliscono nulla viene registrato e il job riprova (l'eliminazione per
+    // prefisso è idempotente)
+    @Override
+    public void deleteFiles(Long userId) {
+        S3Service.deleteUserFiles(userId);
+    }
+
+    // Transazione breve, dopo deleteFiles
+    @Override
+    @Transactional
+    public void markFilesDeleted(Long userId) {
+        userDeletionRepository.markFilesDeleted(userId);
+    }
+
+    /**
+     * Ultimo passo: elimina i todo creati nel frattempo (con un access token
+     * ancora valido) e la riga di users nella stessa transazione. Il lock
+     * esclusivo sulle modifiche dell'utente blocca gli INSERT concorrenti, che
+     * dopo il commit falliscono sulla FK (UserNotFoundException).
+     *
+     * @return true se l'utente è stato eliminato
+     */
+    @Override
+    @Transactional
+    public boolean complete(Long userId) {
+        todoRepository.lockChanges(userId);
+
+        int remaining = todoRepository.deleteAllByUserId(userId) + todoRepository.deleteAllArchivedByUserId(userId);
+        if (remaining > 0) {
+            userDeletionRepository.addTodosDeleted(userId, remaining);
+        }
+
+        userRepository.deleteDeletingById(userId);
+        boolean completed = userDeletionRepository.markCompleted(userId, Instant.now()) > 0;
+
+        todoCacheService.invalidateAfterCommit(userId, List.of());
+        userCacheService.evictAfterCommit(userId, true);
+        return completed;
+    }
+
+    @Override
+    @Transactional
+    public void recordFailure(Long userId, String error) {
+        String message = error == null ? "Errore sconosciuto" : error;
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        userDeletionRepository.recordFailure(userId, message);
+    }
+
+    @Override
+    @Transactional
+    public int purgeHistory(Instant before) {
+        return userDeletionRepository.deleteCompletedBefore(before);
+    }
+
+}
@@ -1,6 +1,12 @@
 package com.example.dataware.todolist.service.implementation;
 
-import org.springframework.data.domain.Page;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -8,12 +14,21 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.dataware.todolist.dto.response.CursorResponse;
+import com.example.dataware.todolist.dto.response.UserDirectoryResponse;
 import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.entity.enums.UserStatus;
 import com.example.dataware.todolist.exception.custom.UserNotFoundException;
+import com.example.dataware.todolist.repository.UserDeletionRepository;
 import com.example.dataware.todolist.repository.UserRepository;
 import com.example.dataware.todolist.s3.S3Properties;
 import com.example.dataware.todolist.s3.S3Service;
+import com.example.dataware.todolist.service.ReadYourWritesService;
+import com.example.dataware.todolist.service.ResourceVersionService;
+import com.example.dataware.todolist.service.TodoCacheService;
+import com.example.dataware.todolist.service.UserCacheService;
 import com.example.dataware.todolist.service.interfaces.UserService;
+import com.example.dataware.todolist.util.cursor.UserCursorCodec;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,24 +38,78 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final long EXACT_COUNT_THRESHOLD = 10_000;
+    private static final long PROFILE_VERSION_TTL_SECONDS = Duration.ofDays(1).toSeconds();
+
     private final UserRepository userRepository;
+    private final UserDeletionRepository userDeletionRepository;
     private final S3Properties S3Properties;
     private final S3Service S3Service;
+    private final TodoCacheService todoCacheService;
+    private final UserCacheService userCacheService;
+    private final ReadYourWritesService readYourWritesService;
+    private final ResourceVersionService resourceVersionService;
 
     @Override
     @Transactional(readOnly = true)
-    public Page<User> findAll(int page, int limit) {
+    public Slice<User> findAll(int page, int limit) {
         Pageable pageable = PageRequest.of(page, limit, Sort.by(Sort.Direction.ASC, "id"));
-        return userRepository.findAll(pageable);
+        return userRepository.findAllBy(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount() {
+        // Stima da pg_class.reltuples: evita una COUNT(*) completa sulla
+        // tabella users; sotto la soglia (o senza statistiche, stima = -1) la
+        // COUNT esatta resta economica
+        long estimate = userRepository.estimateCount();
+        return estimate < EXACT_COUNT_THRESHOLD ? userRepository.count() : estimate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorResponse<UserDirectoryResponse> directory(String query, String cursor, int limit) {
+        long afterId = UserCursorCodec.decode(cursor);
+        String prefix = query == null || query.isBlank() ? null : likePrefix(query);
+
+        // limit + 1 righe per sapere se esiste una pagina successiva
+        List<UserDirectoryResponse> users = prefix == null
+                ? userRepository.findDirectory(afterId, Limit.of(limit + 1))
+                : userRepository.findDirectoryByPrefix(afterId, prefix, Limit.of(limit + 1));
+
+        boolean hasNext = users.size() > limit;
+        List<UserDirectoryResponse> content = users.subList(0, Math.min(users.size(), limit));
+        String nextCursor = hasNext ? UserCursorCodec.encode(content.get(content.size() - 1).getId()) : null;
+        return CursorResponse.of(content, limit, nextCursor);
     }
 
     @Override
     @Transactional(readOnly = true)
     public User findOne(String email) {
+        // Un account in eliminazione non è più visibile (token ancora validi
+        // compresi)
         return userRepository.findByEmail(email)
+                .filter(user -> user.getStatus() != UserStatus.DELETING)
                 .orElseThrow(() -> new UserNotFoundException("Utente non trovato."));
     }
 
+    // Versione del profilo (ETag di GET /users/profile): nessun accesso al DB
+    @Override
+    public Long profileVersion(Long userId) {
+        return resourceVersionService.current(profileVersionKey(userId), PROFILE_VERSION_TTL_SECONDS);
+    }
+
+    // Da chiamare a ogni modifica dell'utente (updatedAt compreso): invalida
+    // anche la cache di secondo livello delle altre istanze e tiene l'utente
+    // sul primary finché le repliche non hanno la modifica
+    @Override
+    public void invalidateProfile(Long userId) {
+        resourceVersionService.incrementAfterCommit(profileVersionKey(userId), PROFILE_VERSION_TTL_SECONDS);
+        userCacheService.evictAfterCommit(userId, false);
+        readYourWritesService.recordWriteAfterCommit(userId);
+    }
+
     @Override
     @Transactional
     public User updateProfileImage(String email, MultipartFile file) {
@@ -56,6 +125,7 @@ public class UserServiceImpl implements UserService {
         // Questo garantisce che se il salvataggio fallisce, il vecchio file rimane
         user.setProfileImageUrl(newUrl);
         User savedUser = userRepository.save(user);
+        invalidateProfile(user.getId());
 
         // Elimina il vecchio file SOLO dopo che il DB è stato aggiornato con successo
         deleteImageFromS3(oldImageUrl, newUrl);
@@ -77,6 +147,7 @@ public class UserServiceImpl implements UserService {
         // Elimina il vecchio file e aggiorna il DB
         deleteImageFromS3(oldImageUrl);
         user.setProfileImageUrl(S3Properties.getDefaultAvatarUrl());
+        invalidateProfile(user.getId());
         return userRepository.save(user);
     }
 
@@ -84,7 +155,33 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void delete(String email) {
         User user = findOne(email);
-        userRepository.delete(user);
+
+        // Solo la marcatura avviene nella richiesta: todo, file su S3 e riga
+        // di users vengono eliminati in background da UserDeletionJob
+        user.setStatus(UserStatus.DELETING);
+        user.setRefreshToken(null);
+        userRepository.save(user);
+        userDeletionRepository.insert(user.getId(), user.getEmail(), Instant.now());
+
+        todoCacheService.invalidateAfterCommit(user.getId(), List.of());
+        invalidateProfile(user.getId());
+    }
+
+    /**
+     * Pattern LIKE per la ricerca per prefisso: minuscolo (come gli indici su
+     * lower(email) e lower(nome)) e con \, % e _ trattati come caratteri
+     * letterali.
+     */
+    private static String likePrefix(String query) {
+        String escaped = query.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+
+    private static String profileVersionKey(Long userId) {
+        return "users:profile:ver:" + userId;
     }
 
     /**
@@ -0,0 +1,13 @@
+package com.example.dataware.todolist.service.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.example.dataware.todolist.dto.response.TodoImportResponse;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
+
+public interface TodoImportService {
+
+    TodoImportResponse importTodos(Long userId, TodoExportFormat format, InputStream inputStream)
+            throws IOException;
+}
@@ -1,21 +1,63 @@
 package com.example.dataware.todolist.service.interfaces;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Sort;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.example.dataware.todolist.dto.response.CursorResponse;
+import com.example.dataware.todolist.dto.response.PageResponse;
+import com.example.dataware.todolist.dto.response.TodoChangesResponse;
+import com.example.dataware.todolist.dto.response.TodoResponse;
+import com.example.dataware.todolist.dto.response.TodoStatsResponse;
+import com.example.dataware.todolist.dto.validator.TodoBatchUpdateItemDto;
 import com.example.dataware.todolist.dto.validator.TodoDto;
 import com.example.dataware.todolist.dto.validator.TodoUpdateDto;
 import com.example.dataware.todolist.entity.Todo;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
 
 public interface TodoService {
 
-    Page<Todo> findAll(String email, int page, int limit, Boolean completed, Sort sort);
+    PageResponse<TodoResponse> findAll(Long userId, int page, int limit, Boolean completed, Sort sort,
+            boolean withTotal, boolean includeArchived);
+
+    Window<Todo> scroll(Long userId, String cursor, int limit, Boolean completed, Sort sort);
+
+    PageResponse<TodoResponse> search(Long userId, String text, int page, int limit, Boolean completed,
+            boolean withTotal);
+
+    CursorResponse<TodoResponse> searchScroll(Long userId, String text, String cursor, int limit, Boolean completed);
+
+    TodoResponse findOne(Long todoId, Long userId, boolean includeArchived);
+
+    Long version(Long userId);
+
+    TodoStatsResponse stats(Long userId);
+
+    TodoChangesResponse changes(Long userId, Long since, int limit);
+
+    long purgeTombstones(Instant before, int limit);
+
+    int archiveCompleted(Instant before, int limit);
+
+    void export(Long userId, TodoExportFormat format, OutputStream outputStream) throws IOException;
+
+    Todo create(TodoDto todoDto, Long userId);
+
+    Todo update(Long todoId, TodoUpdateDto todoUpdateDto, Long expectedVersion, Long userId);
+
+    void delete(Long todoId, Long expectedVersion, Long userId);
 
-    Todo findOne(Long todoId, String email);
+    List<Todo> createAll(List<TodoDto> todoDtos, Long userId);
 
-    Todo create(TodoDto todoDto, String email);
+    Map<Long, Todo> updateAll(List<TodoBatchUpdateItemDto> items, Long userId);
 
-    Todo update(Long todoId, TodoUpdateDto todoUpdateDto, String email);
+    Set<Long> deleteAll(List<Long> todoIds, Long userId);
 
-    void delete(Long todoId, String email);
+    int markAll(boolean completed, Boolean filterCompleted, String text, Long userId);
 }
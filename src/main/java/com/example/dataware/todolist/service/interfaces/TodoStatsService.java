@@ -0,0 +1,14 @@
+package com.example.dataware.todolist.service.interfaces;
+
+import java.util.List;
+
+import com.example.dataware.todolist.dto.response.TodoStatsResponse;
+
+public interface TodoStatsService {
+
+    TodoStatsResponse findOne(Long userId);
+
+    long count(Long userId, Boolean completed);
+
+    int reconcile(List<Long> userIds);
+}
@@ -0,0 +1,28 @@
+package com.example.dataware.todolist.service.interfaces;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import com.example.dataware.todolist.dto.response.UserDeletionResponse;
+
+public interface UserDeletionService {
+
+    Slice<UserDeletionResponse> findAll(int page, int limit);
+
+    List<Long> findPending(int limit);
+
+    int purgeTodos(Long userId, int limit);
+
+    void deleteFiles(Long userId);
+
+    void markFilesDeleted(Long userId);
+
+    boolean complete(Long userId);
+
+    void recordFailure(Long userId, String error);
+
+    int purgeHistory(Instant before);
+
+}
@@ -1,16 +1,26 @@
 package com.example.dataware.todolist.service.interfaces;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.dataware.todolist.dto.response.CursorResponse;
+import com.example.dataware.todolist.dto.response.UserDirectoryResponse;
 import com.example.dataware.todolist.entity.User;
 
 public interface UserService {
 
-    Page<User> findAll(int page, int limit);
+    Slice<User> findAll(int page, int limit);
+
+    long estimateCount();
+
+    CursorResponse<UserDirectoryResponse> directory(String query, String cursor, int limit);
 
     User findOne(String email);
 
+    Long profileVersion(Long userId);
+
+    void invalidateProfile(Long userId);
+
     User updateProfileImage(String email, MultipartFile file);
 
     User deleteProfileImage(String email);
@@ -0,0 +1,148 @@
+package com.example.dataware.todolist.util.cursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.example.dataware.todolist.exception.custom.InvalidCursorException;
+import com.example.dataware.todolist.util.sort.TodoSortableProperty;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Codifica e decodifica il cursore opaco usato dalla paginazione keyset dei
+ * todo.
+ * 
+ * Il cursore contiene i valori delle proprietà di ordinamento dell'ultimo
+ * elemento restituito (più l'id, usato da Spring Data come tie-breaker), così
+ * la pagina successiva viene letta con un predicato di seek
+ * (es. WHERE (updated_at, id) < (?, ?)) invece che con OFFSET.
+ * 
+ * Formato: Base64URL di "chiave:valore" separati da ".", dove chiave e valore
+ * sono a loro volta codificati in Base64URL (il titolo può contenere qualsiasi
+ * carattere).
+ * 
+ * La ricerca full-text (/todos/search/scroll) usa lo stesso formato con le
+ * chiavi rank e id (vedere decodeSearch).
+ */
+@Slf4j
+public class TodoCursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String TIE_BREAKER = TodoSortableProperty.id.name();
+    public static final String SEARCH_RANK = "rank";
+
+    /**
+     * Codifica la posizione keyset nel cursore opaco da restituire al client.
+     *
+     * @param position posizione restituita da Window.positionAt(...)
+     * @return il cursore opaco
+     */
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Posizione keyset attesa: " + position);
+        }
+
+        String payload = keyset.getKeys().entrySet().stream()
+                .map(entry -> encodePart(entry.getKey()) + ":" + encodePart(String.valueOf(entry.getValue())))
+                .collect(Collectors.joining("."));
+
+        return encodePart(payload);
+    }
+
+    /**
+     * Decodifica il cursore e verifica che corrisponda all'ordinamento
+     * richiesto.
+     *
+     * @param cursor il cursore ricevuto dal client (null o vuoto = prima pagina)
+     * @param sort   l'ordinamento già validato della richiesta
+     * @return la posizione keyset da cui proseguire
+     * @throws InvalidCursorException se il cursore è malformato o è stato
+     *                                generato con un ordinamento diverso
+     */
+    public static KeysetScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = decodeKeys(cursor,
+                (property, value) -> TodoSortableProperty.valueOf(property).parse(value));
+
+        Set<String> expectedKeys = sort.stream()
+                .map(order -> order.getProperty())
+                .collect(Collectors.toSet());
+        expectedKeys.add(TIE_BREAKER);
+
+        if (!keys.keySet().equals(expectedKeys)) {
+            throw new InvalidCursorException("Il cursore non corrisponde all'ordinamento richiesto");
+        }
+
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Decodifica il cursore della ricerca full-text (ordinamento per rilevanza
+     * decrescente e id decrescente).
+     *
+     * @param cursor il cursore ricevuto dal client (null o vuoto = prima pagina)
+     * @return la posizione keyset con le chiavi rank (Float) e id (Long)
+     * @throws InvalidCursorException se il cursore è malformato o non è un
+     *                                cursore di ricerca
+     */
+    public static KeysetScrollPosition decodeSearch(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = decodeKeys(cursor, (property, value) -> {
+            if (SEARCH_RANK.equals(property)) {
+                return Float.valueOf(value);
+            }
+            return TodoSortableProperty.valueOf(property).parse(value);
+        });
+
+        if (!keys.keySet().equals(Set.of(SEARCH_RANK, TIE_BREAKER))) {
+            throw new InvalidCursorException("Il cursore non corrisponde alla ricerca richiesta");
+        }
+
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Map<String, Object> decodeKeys(String cursor, BiFunction<String, String, Object> parser) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+
+        try {
+            String payload = decodePart(cursor);
+
+            for (String part : payload.split("\\.")) {
+                String[] keyValue = part.split(":", 2);
+                String property = decodePart(keyValue[0]);
+                String value = decodePart(keyValue[1]);
+                keys.put(property, parser.apply(property, value));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Cursore non decodificabile: {} - {}", cursor, e.getMessage());
+            throw new InvalidCursorException("Cursore non valido");
+        }
+
+        return keys;
+    }
+
+    private static String encodePart(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.example.dataware.todolist.util.cursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.dataware.todolist.exception.custom.InvalidCursorException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Codifica e decodifica il cursore opaco della directory utenti
+ * (GET /users/directory), ordinata per id: il cursore contiene l'id
+ * dell'ultimo utente restituito e la pagina successiva viene letta con
+ * WHERE id > ? invece che con OFFSET.
+ * 
+ * Formato: Base64URL di "id:valore", come i cursori dei todo (vedere
+ * TodoCursorCodec).
+ */
+@Slf4j
+public class UserCursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String PREFIX = "id:";
+
+    public static String encode(Long id) {
+        return ENCODER.encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor il cursore ricevuto dal client (null o vuoto = prima pagina)
+     * @return l'id da cui proseguire (0 per la prima pagina)
+     * @throws InvalidCursorException se il cursore è malformato
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+
+        try {
+            String payload = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            if (payload.startsWith(PREFIX)) {
+                return Long.parseLong(payload.substring(PREFIX.length()));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Cursore non decodificabile: {} - {}", cursor, e.getMessage());
+        }
+
+        throw new InvalidCursorException("Cursore non valido");
+    }
+
+}
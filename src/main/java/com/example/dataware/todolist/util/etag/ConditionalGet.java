@@ -0,0 +1,73 @@
+package com.example.dataware.todolist.util.etag;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.example.dataware.todolist.dto.response.TodoResponse;
+
+/**
+ * GET condizionali (If-None-Match).
+ * 
+ * - Liste dei todo e profilo: ETag calcolato da una versione per utente
+ * (vedere ResourceVersionService), senza caricare né serializzare i dati.
+ * - Singolo todo: ETag uguale al campo version del todo, lo stesso valore
+ * verificato da If-Match su PATCH/DELETE (vedere IfMatch).
+ * 
+ * L'ETag identifica il contenuto di data: il campo timestamp della risposta
+ * non fa parte della rappresentazione validata.
+ * 
+ * Le risposte sono marcate Cache-Control: private, no-cache, quindi i client
+ * possono conservarle ma devono sempre rivalidarle (Spring Security non
+ * aggiunge più il suo no-store).
+ */
+public final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Imposta ETag e Cache-Control sulla risposta e verifica If-None-Match.
+     *
+     * @param request la richiesta corrente
+     * @param etag    l'ETag della risorsa, null se la versione non è
+     *                disponibile (nessuna verifica)
+     * @return true se il client ha già la versione corrente: lo stato 304 è
+     *         già impostato e il controller deve restituire null
+     */
+    public static boolean checkNotModified(ServletWebRequest request, String etag) {
+        if (etag == null) {
+            return false;
+        }
+
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.noCache().cachePrivate().getHeaderValue());
+        return request.checkNotModified(etag);
+    }
+
+    /**
+     * ETag delle liste dei todo di un utente.
+     */
+    public static String todos(Long userId, Long generation) {
+        return generation == null ? null : "\"todos-" + userId + "-" + generation + "\"";
+    }
+
+    /**
+     * ETag del singolo todo: la sua versione tra virgolette (es: "3"),
+     * utilizzabile direttamente in If-Match. Un todo archiviato ha un ETag
+     * diverso (l'archiviazione cambia il campo archived ma non la versione).
+     */
+    public static String todo(TodoResponse todoResponse) {
+        return Boolean.TRUE.equals(todoResponse.getArchived())
+                ? "\"" + todoResponse.getVersion() + "-archived\""
+                : "\"" + todoResponse.getVersion() + "\"";
+    }
+
+    /**
+     * ETag del profilo di un utente.
+     */
+    public static String profile(Long userId, Long version) {
+        return version == null ? null : "\"profile-" + userId + "-" + version + "\"";
+    }
+
+}
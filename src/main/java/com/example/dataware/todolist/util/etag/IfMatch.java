@@ -0,0 +1,70 @@
+package com.example.dataware.todolist.util.etag;
+
+import com.example.dataware.todolist.exception.custom.InvalidIfMatchException;
+import com.example.dataware.todolist.exception.custom.TodoVersionMismatchException;
+
+/**
+ * Scritture condizionali (If-Match) sul singolo todo: il valore dell'header
+ * è il campo version di TodoResponse tra virgolette (es: If-Match: "3"),
+ * cioè l'ETag restituito da GET /todos/{todoId} (vedere ConditionalGet.todo).
+ */
+public final class IfMatch {
+
+    private IfMatch() {
+    }
+
+    /**
+     * Estrae la versione attesa dall'header If-Match.
+     *
+     * @param header il valore dell'header, null se assente
+     * @return la versione attesa, oppure null se l'header è assente o vale *
+     *         (nessuna verifica, basta che il todo esista)
+     * @throws InvalidIfMatchException      se il valore è malformato
+     * @throws TodoVersionMismatchException se il valore è un ETag debole
+     *                                      (W/"3"): valido, ma non soddisfa
+     *                                      mai If-Match
+     */
+    public static Long expectedVersion(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+
+        String value = header.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+
+        if (value.startsWith("W/") && parseVersion(value.substring(2)) != null) {
+            throw new TodoVersionMismatchException(
+                    "Il todo è stato modificato: la versione non corrisponde a If-Match.");
+        }
+
+        Long version = parseVersion(value);
+        if (version == null) {
+            throw new InvalidIfMatchException("If-Match non valido: atteso il campo version tra virgolette.");
+        }
+        return version;
+    }
+
+    /**
+     * @return la versione contenuta in "<numero>", oppure null se il valore
+     *         ha un altro formato
+     */
+    private static Long parseVersion(String value) {
+        if (value.length() < 3 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            return null;
+        }
+
+        String digits = value.substring(1, value.length() - 1);
+        if (!digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
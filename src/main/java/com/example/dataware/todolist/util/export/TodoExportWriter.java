@@ -0,0 +1,80 @@
+package com.example.dataware.todolist.util.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.example.dataware.todolist.dto.response.TodoResponse;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
+
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Scrive i todo esportati sull'output stream della risposta, una riga per
+ * todo, senza accumularli in memoria.
+ * 
+ * - ndjson: un oggetto JSON (stesso formato di TodoResponse) per riga.
+ * - csv: intestazione id,title,completed,createdAt,updatedAt; i valori con
+ * separatori, virgolette o a capo sono racchiusi tra virgolette, quelli che
+ * iniziano con =, +, - o @ sono preceduti da un apice per evitare che i fogli
+ * di calcolo li interpretino come formule.
+ * 
+ * Lo stream della risposta non viene chiuso (lo gestisce il container).
+ */
+public class TodoExportWriter {
+
+    private static final String CSV_HEADER = "id,title,completed,createdAt,updatedAt";
+
+    private final TodoExportFormat format;
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+
+    public TodoExportWriter(TodoExportFormat format, OutputStream outputStream, ObjectMapper objectMapper) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == TodoExportFormat.csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    public void write(TodoResponse todo) throws IOException {
+        if (format == TodoExportFormat.ndjson) {
+            writer.write(objectMapper.writeValueAsString(todo));
+        } else {
+            writer.write(String.valueOf(todo.getId()));
+            writer.write(',');
+            writer.write(csvValue(todo.getTitle()));
+            writer.write(',');
+            writer.write(String.valueOf(todo.getCompleted()));
+            writer.write(',');
+            writer.write(String.valueOf(todo.getCreatedAt()));
+            writer.write(',');
+            writer.write(String.valueOf(todo.getUpdatedAt()));
+        }
+        writer.write('\n');
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static String csvValue(String value) {
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.example.dataware.todolist.util.export.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Formati supportati da GET /todos/export (parametro format, es:
+ * format=csv).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TodoExportFormat {
+
+    ndjson("application/x-ndjson", ".ndjson"),
+    csv("text/csv", ".csv");
+
+    private final String mimeType;
+    private final String extension;
+}
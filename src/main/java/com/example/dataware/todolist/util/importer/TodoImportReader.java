@@ -0,0 +1,239 @@
+package com.example.dataware.todolist.util.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.exception.custom.InvalidImportFileException;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Legge i todo da importare dal body della richiesta un record alla volta,
+ * senza mai caricare l'intero payload in memoria. Accetta gli stessi formati
+ * prodotti da TodoExportWriter:
+ *
+ * - ndjson: un oggetto JSON per riga, viene letto solo il campo title.
+ * - csv: intestazione obbligatoria con una colonna title (le altre vengono
+ * ignorate); i valori tra virgolette possono contenere separatori e a capo e
+ * l'apice aggiunto dall'export davanti a =, +, - e @ viene rimosso.
+ *
+ * Le righe vuote vengono saltate. Un record più lungo di MAX_RECORD_LENGTH
+ * caratteri viene consumato fino alla fine ma non accumulato, e restituito
+ * come errore.
+ */
+public class TodoImportReader {
+
+    public static final int MAX_RECORD_LENGTH = 10_000;
+
+    private static final String TITLE_COLUMN = "title";
+    private static final char BOM = '\uFEFF';
+    // Segnaposto restituito da readCsvRecord per i record troppo lunghi
+    private static final List<String> TOO_LONG = List.of();
+
+    private final TodoExportFormat format;
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+
+    private long lineNumber = 1;
+    private int titleColumn = -1;
+    private boolean firstChar = true;
+
+    /**
+     * Record letto: numero della riga (la prima, se il record CSV ne occupa
+     * più di una) e todo oppure messaggio di errore.
+     */
+    public record Line(long number, TodoDto todo, String error) {
+    }
+
+    public TodoImportReader(TodoExportFormat format, InputStream inputStream, ObjectMapper objectMapper) {
+        this.format = format;
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    public void readHeader() throws IOException {
+        if (format != TodoExportFormat.csv) {
+            return;
+        }
+
+        List<String> header = readCsvRecord();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                if (TITLE_COLUMN.equalsIgnoreCase(header.get(i).trim())) {
+                    titleColumn = i;
+                    break;
+                }
+            }
+        }
+
+        if (titleColumn < 0) {
+            throw new InvalidImportFileException("Intestazione CSV non valida: colonna title mancante.");
+        }
+    }
+
+    /**
+     * @return il prossimo record, oppure null a fine stream
+     */
+    public Line next() throws IOException {
+        return format == TodoExportFormat.csv ? nextCsv() : nextNdjson();
+    }
+
+    private Line nextNdjson() throws IOException {
+        while (true) {
+            long number = lineNumber;
+            StringBuilder line = new StringBuilder();
+            boolean tooLong = false;
+            boolean eof = true;
+
+            int c;
+            while ((c = read()) != -1) {
+                eof = false;
+                if (c == '\n') {
+                    break;
+                }
+                if (line.length() < MAX_RECORD_LENGTH) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+
+            if (eof) {
+                return null;
+            }
+            if (tooLong) {
+                return tooLong(number);
+            }
+
+            String json = line.toString().trim();
+            if (json.isEmpty()) {
+                continue;
+            }
+
+            try {
+                TodoDto todoDto = objectMapper.readValue(json, TodoDto.class);
+                return todoDto != null
+                        ? new Line(number, todoDto, null)
+                        : new Line(number, null, "JSON non valido");
+            } catch (JacksonException e) {
+                return new Line(number, null, "JSON non valido");
+            }
+        }
+    }
+
+    private Line nextCsv() throws IOException {
+        while (true) {
+            long number = lineNumber;
+            List<String> fields = readCsvRecord();
+
+            if (fields == null) {
+                return null;
+            }
+            if (fields == TOO_LONG) {
+                return tooLong(number);
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+
+            String title = titleColumn < fields.size() ? unescapeFormula(fields.get(titleColumn)) : null;
+            return new Line(number, TodoDto.builder().title(title).build(), null);
+        }
+    }
+
+    /**
+     * Legge un record CSV (RFC 4180): i campi tra virgolette possono contenere
+     * virgole, a capo e virgolette raddoppiate.
+     *
+     * @return i campi del record, TOO_LONG se supera MAX_RECORD_LENGTH,
+     *         oppure null a fine stream
+     */
+    private List<String> readCsvRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        boolean eof = true;
+
+        int c;
+        while ((c = read()) != -1) {
+            eof = false;
+
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+
+            // Il record viene consumato fino alla fine senza accumularlo
+            if (++length > MAX_RECORD_LENGTH) {
+                field.setLength(0);
+                fields.clear();
+            }
+        }
+
+        if (eof) {
+            return null;
+        }
+        if (length > MAX_RECORD_LENGTH) {
+            return TOO_LONG;
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        if (firstChar) {
+            firstChar = false;
+            if (c == BOM) {
+                c = reader.read();
+            }
+        }
+        if (c == '\n') {
+            lineNumber++;
+        }
+        return c;
+    }
+
+    private static Line tooLong(long number) {
+        return new Line(number, null, "Riga troppo lunga (massimo " + MAX_RECORD_LENGTH + " caratteri)");
+    }
+
+    private static String unescapeFormula(String value) {
+        if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@".indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+}
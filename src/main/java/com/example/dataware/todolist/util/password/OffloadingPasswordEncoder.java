@@ -0,0 +1,67 @@
+package com.example.dataware.todolist.util.password;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder che calcola gli hash su un pool limitato di thread di
+ * piattaforma, usato con i virtual thread (vedere SecurityConfig).
+ *
+ * BCrypt non fa I/O: sul virtual thread della richiesta occuperebbe un
+ * carrier thread (uno per core) per tutta la durata dell'hash, e con molti
+ * login concorrenti le altre richieste resterebbero ferme anche se pronte a
+ * ripartire. Qui il virtual thread si sospende in attesa del risultato e
+ * libera il carrier; al massimo threads hash vengono calcolati insieme.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, int threads) {
+        this.delegate = delegate;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T call(Callable<T> task) {
+        try {
+            return executor.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calcolo dell'hash della password interrotto", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Calcolo dell'hash della password fallito", e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.example.dataware.todolist.util.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Converte il testo di ricerca dell'utente in una tsquery PostgreSQL con
+ * ricerca per prefisso.
+ * 
+ * Esempio: "Fare la spe" -> "fare:* & la:* & spe:*"
+ * 
+ * Vengono mantenuti solo lettere e numeri, quindi l'input non può contenere
+ * operatori tsquery (&, |, !, :, parentesi) e to_tsquery non fallisce mai
+ * per errori di sintassi.
+ */
+public class TodoSearchQuery {
+
+    private static final int MAX_TERMS = 10;
+
+    /**
+     * @param text il testo di ricerca
+     * @return la tsquery, o null se il testo non contiene termini ricercabili
+     */
+    public static String toTsQuery(String text) {
+        String tsQuery = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+
+        return tsQuery.isEmpty() ? null : tsQuery;
+    }
+
+}
@@ -1,12 +1,34 @@
 package com.example.dataware.todolist.util.sort;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.function.Function;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
 public enum TodoSortableProperty {
-    id, title, completed, createdAt, updatedAt;
+    id(Long::valueOf),
+    title(value -> value),
+    completed(Boolean::valueOf),
+    createdAt(Instant::parse),
+    updatedAt(Instant::parse);
+
+    /**
+     * Converte il valore testuale salvato nel cursore (vedere TodoCursorCodec)
+     * nel tipo Java della proprietà, necessario per costruire i predicati di
+     * seek della paginazione keyset.
+     */
+    private final Function<String, Object> parser;
 
     public static boolean isValid(String property) {
         return Arrays.stream(TodoSortableProperty.values())
                 .anyMatch(value -> value.name().equals(property));
     }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
 }
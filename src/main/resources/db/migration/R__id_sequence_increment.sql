@@ -0,0 +1,7 @@
+-- Allinea l'INCREMENT BY delle sequence degli id alla proprietà
+-- app.id.allocation-size (placeholder Flyway id-allocation-size).
+-- Essendo una migrazione ripetibile viene rieseguita ogni volta che il valore
+-- del placeholder cambia.
+
+ALTER SEQUENCE users_seq INCREMENT BY ${id-allocation-size};
+ALTER SEQUENCE todos_seq INCREMENT BY ${id-allocation-size};
@@ -0,0 +1,16 @@
+-- Indici per la ricerca per prefisso della directory utenti
+-- (GET /users/directory?q=...):
+--   WHERE lower(email) LIKE 'pre%' OR lower(nome) LIKE 'pre%'
+-- text_pattern_ops permette di usare l'indice B-tree per LIKE con prefisso
+-- indipendentemente dalla collation del database; le due condizioni vengono
+-- combinate con un BitmapOr.
+-- Senza q la directory scorre la chiave primaria (WHERE id > ? ORDER BY id).
+--
+-- CREATE INDEX CONCURRENTLY non può girare in una transazione: vedere
+-- V10__user_directory_indexes.sql.conf.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_prefix
+    ON users (lower(email) text_pattern_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_nome_prefix
+    ON users (lower(nome) text_pattern_ops);
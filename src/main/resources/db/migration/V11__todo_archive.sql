@@ -0,0 +1,74 @@
+-- Archivio dei todo completati da più di app.archive.after (TodoArchiveJob).
+--
+-- todos contiene solo i todo "caldi": il job sposta a blocchi i todo
+-- completati da tempo in todos_archive (DELETE ... RETURNING + INSERT in
+-- un'unica istruzione), così gli indici di V2 usati dalle liste restano
+-- piccoli. todos_archive è partizionata per anno di completamento
+-- (completed_at, UTC): le partizioni vecchie si possono staccare o spostare
+-- su un tablespace diverso senza toccare quelle recenti.
+--
+-- Le partizioni annuali vengono create da todos_archive_create_partitions,
+-- chiamata dal job prima di ogni spostamento: non esiste una partizione
+-- DEFAULT, quindi la creazione di un nuovo anno non deve mai verificare righe
+-- già archiviate.
+--
+-- Per la sincronizzazione incrementale un todo archiviato equivale a un todo
+-- eliminato (il trigger di cancellazione su todos registra la tombstone) e
+-- le statistiche di todo_stats contano solo i todo non archiviati. I todo
+-- archiviati sono in sola lettura: GET /todos e GET /todos/{todoId} li
+-- includono con includeArchived=true tramite la vista todos_all.
+
+CREATE TABLE IF NOT EXISTS todos_archive (
+    id           BIGINT NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    title        VARCHAR(255) NOT NULL,
+    -- Sempre true: con constraint_exclusion=partition (default) una lettura di
+    -- todos_all con completed=false non visita l'archivio
+    completed    BOOLEAN NOT NULL CHECK (completed),
+    completed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    user_id      BIGINT NOT NULL REFERENCES users (id),
+    version      BIGINT NOT NULL,
+    archived_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, completed_at)
+) PARTITION BY RANGE (completed_at);
+
+-- Lookup per id + user_id, sort=id ed eliminazione degli account
+CREATE INDEX IF NOT EXISTS idx_todos_archive_user_id
+    ON todos_archive (user_id, id);
+
+-- sort=updatedAt (ordinamento di default delle liste)
+CREATE INDEX IF NOT EXISTS idx_todos_archive_user_updated_at
+    ON todos_archive (user_id, updated_at, id);
+
+-- Todo completati prima del 2024
+CREATE TABLE IF NOT EXISTS todos_archive_legacy PARTITION OF todos_archive
+    FOR VALUES FROM (MINVALUE) TO ('2024-01-01 00:00:00+00');
+
+-- Crea le partizioni annuali mancanti fino all'anno di p_until (UTC) incluso
+CREATE OR REPLACE FUNCTION todos_archive_create_partitions(p_until TIMESTAMPTZ) RETURNS void AS $$
+DECLARE
+    y INTEGER;
+BEGIN
+    FOR y IN 2024 .. CAST(extract(YEAR FROM p_until AT TIME ZONE 'UTC') AS INTEGER) LOOP
+        IF to_regclass('todos_archive_' || y) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF todos_archive FOR VALUES FROM (%L) TO (%L)',
+                           'todos_archive_' || y,
+                           make_timestamptz(y, 1, 1, 0, 0, 0, 'UTC'),
+                           make_timestamptz(y + 1, 1, 1, 0, 0, 0, 'UTC'));
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT todos_archive_create_partitions(now() + INTERVAL '1 year');
+
+-- Todo attivi e archiviati: le condizioni su user_id, id e completed vengono
+-- applicate a entrambi i rami della UNION ALL, e l'ordinamento con LIMIT
+-- combina due scansioni di indice già ordinate (Merge Append)
+CREATE OR REPLACE VIEW todos_all AS
+SELECT id, created_at, updated_at, title, completed, user_id, version, FALSE AS archived
+FROM todos
+UNION ALL
+SELECT id, created_at, updated_at, title, completed, user_id, version, TRUE AS archived
+FROM todos_archive;
@@ -0,0 +1,10 @@
+-- Indice per la selezione dei todo da archiviare (TodoArchiveJob):
+--   WHERE completed AND completed_at < ? ORDER BY completed_at LIMIT ?
+-- Parziale: contiene solo i todo completati, gli unici candidati
+-- all'archiviazione.
+--
+-- CREATE INDEX CONCURRENTLY non può girare in una transazione: vedere
+-- V12__todo_archive_candidates_index.sql.conf.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_completed_at
+    ON todos (completed_at) WHERE completed;
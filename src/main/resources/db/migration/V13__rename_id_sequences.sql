@@ -0,0 +1,6 @@
+-- Allinea i nomi delle sequence degli id al naming implicito di Hibernate
+-- (<tabella>_seq): V3 le aveva create come user_seq e todo_seq, nomi che la
+-- validazione dello schema all'avvio non trova.
+
+ALTER SEQUENCE IF EXISTS user_seq RENAME TO users_seq;
+ALTER SEQUENCE IF EXISTS todo_seq RENAME TO todos_seq;
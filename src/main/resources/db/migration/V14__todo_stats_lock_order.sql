@@ -0,0 +1,60 @@
+-- Ordine dei lock tra scritture sui todo e todo_stats.
+--
+-- INSERT e UPDATE prendono l'advisory lock sull'utente (trigger BEFORE di V6)
+-- prima della riga di todo_stats (trigger di istruzione di V4). Le DELETE
+-- invece aggiornavano todo_stats prima dell'advisory lock (preso dal trigger
+-- delle tombstone, eseguito dopo quello delle statistiche): una DELETE su più
+-- utenti (TodoArchiveJob) poteva andare in deadlock con un PATCH
+-- /todos/batch concorrente (advisory -> todo_stats da una parte,
+-- todo_stats -> advisory dall'altra).
+--
+-- Ora todo_stats_apply prende gli advisory lock degli utenti della DELETE, in
+-- ordine di user_id, prima di toccare todo_stats, e in tutti i casi aggiorna
+-- le righe di todo_stats in ordine di user_id (lo stesso ordine di
+-- TodoStatsRepository.lockByUserIdIn). Per INSERT e UPDATE i lock sono già
+-- presi dal trigger BEFORE.
+
+CREATE OR REPLACE FUNCTION todo_stats_apply() RETURNS trigger AS $$
+DECLARE
+    today_start TIMESTAMPTZ := date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM todo_stats_add(d.user_id, d.total, d.completed, d.created_today, d.completed_today)
+        FROM (SELECT user_id,
+                     count(*) AS total,
+                     count(*) FILTER (WHERE completed) AS completed,
+                     count(*) FILTER (WHERE created_at >= today_start) AS created_today,
+                     count(*) FILTER (WHERE completed_at >= today_start) AS completed_today
+              FROM new_rows
+              GROUP BY user_id
+              ORDER BY user_id) d;
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM pg_advisory_xact_lock(u.user_id)
+        FROM (SELECT DISTINCT user_id FROM old_rows ORDER BY user_id) u;
+
+        PERFORM todo_stats_add(d.user_id, -d.total, -d.completed, -d.created_today, -d.completed_today)
+        FROM (SELECT user_id,
+                     count(*) AS total,
+                     count(*) FILTER (WHERE completed) AS completed,
+                     count(*) FILTER (WHERE created_at >= today_start) AS created_today,
+                     count(*) FILTER (WHERE completed_at >= today_start) AS completed_today
+              FROM old_rows
+              GROUP BY user_id
+              ORDER BY user_id) d;
+    ELSE
+        -- Solo le righe in cui completed è cambiato (le modifiche del titolo
+        -- non toccano le statistiche)
+        PERFORM todo_stats_add(d.user_id, 0, d.completed, 0, d.completed_today)
+        FROM (SELECT n.user_id,
+                     sum(CASE WHEN n.completed THEN 1 ELSE -1 END) AS completed,
+                     count(*) FILTER (WHERE n.completed_at >= today_start)
+                         - count(*) FILTER (WHERE o.completed_at >= today_start) AS completed_today
+              FROM new_rows n
+              JOIN old_rows o ON o.id = n.id
+              WHERE n.completed IS DISTINCT FROM o.completed
+              GROUP BY n.user_id
+              ORDER BY n.user_id) d;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
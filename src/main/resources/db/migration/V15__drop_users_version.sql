@@ -0,0 +1,10 @@
+-- Locking ottimistico solo sui todo (@Version spostato da BaseEntity a Todo).
+--
+-- Con users.version due login o refresh concorrenti dello stesso account
+-- (due schede, un client che ripete la richiesta) fallivano con 409 Conflict
+-- al salvataggio del refresh token, e un User obsoleto nella cache di
+-- secondo livello di un'altra istanza rendeva 409 ogni login su quell'istanza
+-- fino all'invalidazione. Le scritture su users tornano last-write-wins.
+
+ALTER TABLE users
+    DROP COLUMN IF EXISTS version;
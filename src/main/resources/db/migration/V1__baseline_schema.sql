@@ -0,0 +1,24 @@
+-- Schema iniziale, equivalente a quello generato in precedenza da
+-- spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS rende la migrazione idempotente sui database già esistenti.
+
+CREATE TABLE IF NOT EXISTS users (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    nome              VARCHAR(255) NOT NULL,
+    email             VARCHAR(255) NOT NULL UNIQUE,
+    password          VARCHAR(255) NOT NULL,
+    profile_image_url VARCHAR(255) NOT NULL,
+    role              VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    refresh_token     VARCHAR(500)
+);
+
+CREATE TABLE IF NOT EXISTS todos (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    title      VARCHAR(255) NOT NULL,
+    completed  BOOLEAN NOT NULL,
+    user_id    BIGINT NOT NULL REFERENCES users (id)
+);
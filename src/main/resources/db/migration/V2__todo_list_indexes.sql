@@ -0,0 +1,40 @@
+-- Indici compositi per le query di lista dei todo:
+--   WHERE user_id = ? [AND completed = ?] ORDER BY <proprietà> [ASC|DESC], id
+-- Uno per ogni proprietà di TodoSortableProperty, con e senza filtro completed.
+-- L'id in coda segue il tie-breaker della paginazione keyset (/todos/scroll);
+-- PostgreSQL scorre gli indici B-tree in entrambe le direzioni, quindi
+-- coprono sia l'ordinamento ASC che DESC.
+--
+-- CREATE INDEX CONCURRENTLY non blocca le scritture su todos ma non può girare
+-- in una transazione: vedere V2__todo_list_indexes.sql.conf.
+-- Se una build fallisce lascia un indice INVALID: va eliminato con
+-- DROP INDEX CONCURRENTLY prima di rilanciare la migrazione.
+
+-- sort=id (e lookup per id + user_id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_id
+    ON todos (user_id, id);
+
+-- completed=? con sort=id, e sort=completed
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_completed_id
+    ON todos (user_id, completed, id);
+
+-- sort=updatedAt (ordinamento di default): covering per index-only scan
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_updated_at
+    ON todos (user_id, updated_at, id) INCLUDE (title, completed, created_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_completed_updated_at
+    ON todos (user_id, completed, updated_at, id) INCLUDE (title, created_at);
+
+-- sort=createdAt
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_created_at
+    ON todos (user_id, created_at, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_completed_created_at
+    ON todos (user_id, completed, created_at, id);
+
+-- sort=title
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_title
+    ON todos (user_id, title, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_completed_title
+    ON todos (user_id, completed, title, id);
@@ -0,0 +1,14 @@
+-- Passaggio da GENERATED BY DEFAULT AS IDENTITY a sequence per entità
+-- (nomi implicit di Hibernate: <entità>_seq) con optimizer pooled.
+-- Il valore corrente parte dal massimo id esistente: con l'optimizer pooled
+-- il primo blocco riservato è (max(id), max(id) + INCREMENT BY].
+-- L'INCREMENT BY viene poi allineato a app.id.allocation-size da
+-- R__id_sequence_increment.sql.
+
+CREATE SEQUENCE IF NOT EXISTS user_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('user_seq', GREATEST((SELECT MAX(id) FROM users), 1));
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS todo_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('todo_seq', GREATEST((SELECT MAX(id) FROM todos), 1));
+ALTER TABLE todos ALTER COLUMN id DROP IDENTITY IF EXISTS;
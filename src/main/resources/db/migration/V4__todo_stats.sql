@@ -0,0 +1,122 @@
+-- Statistiche per utente (GET /todos/stats) mantenute in modo incrementale
+-- da trigger su todos, nella stessa transazione della scrittura: coprono
+-- anche le istruzioni set-based (batch delete, mark-all) in cui l'ORM non
+-- conosce i valori precedenti.
+-- "Oggi" è il giorno UTC corrente:
+-- - created_today: todo esistenti creati oggi
+-- - completed_today: todo completati oggi e ancora completati
+-- I contatori giornalieri ripartono da 0 al primo aggiornamento di un nuovo
+-- giorno (stats_date). Eventuali derive vengono corrette dal job di
+-- riconciliazione (TodoStatsReconciliationJob).
+
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS completed_at TIMESTAMP(6) WITH TIME ZONE;
+UPDATE todos SET completed_at = updated_at WHERE completed AND completed_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS todo_stats (
+    user_id         BIGINT PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    total           BIGINT NOT NULL DEFAULT 0,
+    completed       BIGINT NOT NULL DEFAULT 0,
+    created_today   BIGINT NOT NULL DEFAULT 0,
+    completed_today BIGINT NOT NULL DEFAULT 0,
+    stats_date      DATE NOT NULL,
+    updated_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- completed_at segue le transizioni di completed
+CREATE OR REPLACE FUNCTION todos_set_completed_at() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        NEW.completed_at := CASE WHEN NEW.completed THEN now() END;
+    ELSIF NEW.completed IS DISTINCT FROM OLD.completed THEN
+        NEW.completed_at := CASE WHEN NEW.completed THEN now() END;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS todos_completed_at ON todos;
+CREATE TRIGGER todos_completed_at
+    BEFORE INSERT OR UPDATE OF completed ON todos
+    FOR EACH ROW EXECUTE FUNCTION todos_set_completed_at();
+
+-- Applica una variazione alle statistiche di un utente
+CREATE OR REPLACE FUNCTION todo_stats_add(p_user_id BIGINT, p_total BIGINT, p_completed BIGINT,
+        p_created_today BIGINT, p_completed_today BIGINT) RETURNS void AS $$
+    INSERT INTO todo_stats AS s (user_id, total, completed, created_today, completed_today, stats_date, updated_at)
+    VALUES (p_user_id, GREATEST(p_total, 0), GREATEST(p_completed, 0), GREATEST(p_created_today, 0),
+            GREATEST(p_completed_today, 0), CAST(now() AT TIME ZONE 'UTC' AS DATE), now())
+    ON CONFLICT (user_id) DO UPDATE SET
+        total = GREATEST(s.total + p_total, 0),
+        completed = GREATEST(s.completed + p_completed, 0),
+        created_today = GREATEST(
+            CASE WHEN s.stats_date = EXCLUDED.stats_date THEN s.created_today ELSE 0 END + p_created_today, 0),
+        completed_today = GREATEST(
+            CASE WHEN s.stats_date = EXCLUDED.stats_date THEN s.completed_today ELSE 0 END + p_completed_today, 0),
+        stats_date = EXCLUDED.stats_date,
+        updated_at = EXCLUDED.updated_at;
+$$ LANGUAGE sql;
+
+-- Trigger a livello di istruzione con transition table: un solo upsert per
+-- utente anche per un batch di centinaia di righe
+CREATE OR REPLACE FUNCTION todo_stats_apply() RETURNS trigger AS $$
+DECLARE
+    today_start TIMESTAMPTZ := date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM todo_stats_add(user_id, count(*), count(*) FILTER (WHERE completed),
+                count(*) FILTER (WHERE created_at >= today_start),
+                count(*) FILTER (WHERE completed_at >= today_start))
+        FROM new_rows
+        GROUP BY user_id;
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM todo_stats_add(user_id, -count(*), -count(*) FILTER (WHERE completed),
+                -count(*) FILTER (WHERE created_at >= today_start),
+                -count(*) FILTER (WHERE completed_at >= today_start))
+        FROM old_rows
+        GROUP BY user_id;
+    ELSE
+        -- Solo le righe in cui completed è cambiato (le modifiche del titolo
+        -- non toccano le statistiche)
+        PERFORM todo_stats_add(n.user_id, 0, sum(CASE WHEN n.completed THEN 1 ELSE -1 END), 0,
+                count(*) FILTER (WHERE n.completed_at >= today_start)
+                    - count(*) FILTER (WHERE o.completed_at >= today_start))
+        FROM new_rows n
+        JOIN old_rows o ON o.id = n.id
+        WHERE n.completed IS DISTINCT FROM o.completed
+        GROUP BY n.user_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS todos_stats_insert ON todos;
+CREATE TRIGGER todos_stats_insert
+    AFTER INSERT ON todos
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION todo_stats_apply();
+
+DROP TRIGGER IF EXISTS todos_stats_update ON todos;
+CREATE TRIGGER todos_stats_update
+    AFTER UPDATE ON todos
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION todo_stats_apply();
+
+DROP TRIGGER IF EXISTS todos_stats_delete ON todos;
+CREATE TRIGGER todos_stats_delete
+    AFTER DELETE ON todos
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION todo_stats_apply();
+
+-- Valori iniziali per gli utenti esistenti
+INSERT INTO todo_stats (user_id, total, completed, created_today, completed_today, stats_date, updated_at)
+SELECT u.id,
+       count(t.id),
+       count(t.id) FILTER (WHERE t.completed),
+       count(t.id) FILTER (WHERE t.created_at >= date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'),
+       count(t.id) FILTER (WHERE t.completed_at >= date_trunc('day', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'),
+       CAST(now() AT TIME ZONE 'UTC' AS DATE),
+       now()
+FROM users u
+LEFT JOIN todos t ON t.user_id = u.id
+GROUP BY u.id
+ON CONFLICT (user_id) DO NOTHING;
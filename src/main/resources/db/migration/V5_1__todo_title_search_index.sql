@@ -0,0 +1,8 @@
+-- Indice della ricerca full-text (colonna title_tsv creata da V5): il GIN
+-- composito (user_id, title_tsv) limita la ricerca ai todo dell'utente
+-- direttamente nell'indice.
+-- CREATE INDEX CONCURRENTLY non può girare in una transazione: vedere
+-- V5_1__todo_title_search_index.sql.conf.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_title_tsv
+    ON todos USING GIN (user_id, title_tsv);
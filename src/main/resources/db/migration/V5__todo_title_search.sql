@@ -0,0 +1,16 @@
+-- Ricerca full-text sui titoli dei todo (GET /todos/search).
+-- title_tsv è una colonna generata: PostgreSQL la ricalcola a ogni INSERT o
+-- UPDATE di title, l'applicazione non la scrive mai (non è mappata in Todo).
+-- Configurazione 'simple': nessuno stemming, funziona per qualsiasi lingua e
+-- con la ricerca per prefisso (termine:*).
+--
+-- L'ADD COLUMN di una colonna generata STORED riscrive la tabella (lock
+-- esclusivo su todos per la durata della riscrittura). Gira in transazione:
+-- se fallisce non resta nulla di applicato. L'indice viene creato a parte,
+-- senza transazione, da V5_1__todo_title_search_index.sql.
+-- btree_gin serve all'indice GIN composito (user_id, title_tsv).
+
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS title_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', title)) STORED;
@@ -0,0 +1,78 @@
+-- Sincronizzazione incrementale dei client (GET /todos/changes).
+--
+-- change_seq: numero di modifica assegnato da una sequence globale a ogni
+-- INSERT e UPDATE di un todo (trigger BEFORE, mai scritto dall'applicazione).
+-- todo_tombstones: i todo eliminati, con il change_seq della cancellazione;
+-- restano per la finestra di retention (app.sync.tombstone-retention) e poi
+-- vengono eliminati dal job TodoTombstonePurgeJob, che registra in
+-- todo_sync_horizon il change_seq più alto eliminato: un token precedente
+-- non è più valido (410 Gone).
+--
+-- Ordine di commit: change_seq viene assegnato dopo un advisory lock
+-- transazionale sull'utente (pg_advisory_xact_lock(user_id)), quindi le
+-- scritture sui todo di uno stesso utente committano in ordine di
+-- change_seq. La lettura delle modifiche prende lo stesso lock in modalità
+-- condivisa: non esistono change_seq già assegnati ma non ancora visibili e
+-- un client non salta mai una modifica.
+-- Le scritture sui todo di un utente erano già serializzate dal lock sulla
+-- riga di todo_stats (V4); il lock viene solo anticipato a inizio istruzione.
+--
+-- Il backfill assegna un change_seq a tutti i todo esistenti (riscrive la
+-- tabella todos). L'indice (user_id, change_seq) è in V7.
+
+CREATE SEQUENCE IF NOT EXISTS todo_change_seq;
+
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS change_seq BIGINT;
+UPDATE todos SET change_seq = nextval('todo_change_seq') WHERE change_seq IS NULL;
+ALTER TABLE todos ALTER COLUMN change_seq SET NOT NULL;
+
+CREATE TABLE IF NOT EXISTS todo_tombstones (
+    change_seq BIGINT PRIMARY KEY,
+    user_id    BIGINT NOT NULL,
+    todo_id    BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+-- Nessuna FK su users: le tombstone di un account eliminato scadono con la
+-- retention come le altre
+CREATE INDEX IF NOT EXISTS idx_todo_tombstones_user_change_seq ON todo_tombstones (user_id, change_seq);
+CREATE INDEX IF NOT EXISTS idx_todo_tombstones_deleted_at ON todo_tombstones (deleted_at);
+
+CREATE TABLE IF NOT EXISTS todo_sync_horizon (
+    id                SMALLINT PRIMARY KEY CHECK (id = 1),
+    purged_change_seq BIGINT NOT NULL
+);
+INSERT INTO todo_sync_horizon (id, purged_change_seq) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION todos_set_change_seq() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(NEW.user_id);
+    NEW.change_seq := nextval('todo_change_seq');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS todos_change_seq ON todos;
+CREATE TRIGGER todos_change_seq
+    BEFORE INSERT OR UPDATE ON todos
+    FOR EACH ROW EXECUTE FUNCTION todos_set_change_seq();
+
+-- Trigger a livello di istruzione: i lock vengono presi in ordine di
+-- user_id (nessun deadlock tra cancellazioni di più utenti)
+CREATE OR REPLACE FUNCTION todos_insert_tombstones() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(u.user_id)
+    FROM (SELECT DISTINCT user_id FROM old_rows ORDER BY user_id) u;
+
+    INSERT INTO todo_tombstones (change_seq, user_id, todo_id)
+    SELECT nextval('todo_change_seq'), user_id, id
+    FROM old_rows;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS todos_tombstones ON todos;
+CREATE TRIGGER todos_tombstones
+    AFTER DELETE ON todos
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION todos_insert_tombstones();
@@ -0,0 +1,9 @@
+-- Indice per GET /todos/changes:
+--   WHERE user_id = ? AND change_seq > ? ORDER BY change_seq LIMIT ?
+-- Il costo della sincronizzazione è proporzionale al numero di modifiche e
+-- non alla dimensione della lista.
+-- CREATE INDEX CONCURRENTLY non può girare in una transazione: vedere
+-- V7__todo_change_seq_index.sql.conf.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_todos_user_change_seq
+    ON todos (user_id, change_seq);
@@ -0,0 +1,15 @@
+-- Versione per il locking ottimistico (@Version su BaseEntity).
+--
+-- Ogni UPDATE dell'applicazione incrementa version e verifica il valore
+-- letto (WHERE ... AND version = ?): una modifica concorrente viene rilevata
+-- senza lock (409 Conflict), e PATCH/DELETE /todos/{todoId} accettano la
+-- versione attesa nell'header If-Match (412 Precondition Failed).
+--
+-- ADD COLUMN con un DEFAULT costante non riscrive la tabella (Postgres 11+):
+-- le righe esistenti partono dalla versione 0.
+
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE todos
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
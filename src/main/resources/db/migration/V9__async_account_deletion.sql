@@ -0,0 +1,45 @@
+-- Eliminazione asincrona degli account (DELETE /users).
+--
+-- La richiesta marca l'utente come DELETING (login e refresh vengono
+-- rifiutati subito) e registra la richiesta in user_deletions; il job
+-- UserDeletionJob elimina poi i todo a blocchi con DELETE set-based, i file
+-- dell'utente su S3 e infine la riga di users. user_deletions non ha FK su
+-- users: resta come storico per gli admin (GET /users/deletions) fino a
+-- app.deletion.history-retention dopo il completamento.
+
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE'
+        CHECK (status IN ('ACTIVE', 'DELETING'));
+
+CREATE TABLE IF NOT EXISTS user_deletions (
+    user_id       BIGINT PRIMARY KEY,
+    email         VARCHAR(255) NOT NULL,
+    requested_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    completed_at  TIMESTAMP(6) WITH TIME ZONE,
+    todos_deleted BIGINT NOT NULL DEFAULT 0,
+    files_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    attempts      INTEGER NOT NULL DEFAULT 0,
+    last_error    VARCHAR(500)
+);
+
+-- Richieste da elaborare (poche righe, lette dal job a ogni esecuzione)
+CREATE INDEX IF NOT EXISTS idx_user_deletions_pending
+    ON user_deletions (requested_at) WHERE completed_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_user_deletions_completed_at
+    ON user_deletions (completed_at) WHERE completed_at IS NOT NULL;
+
+-- Nessuna tombstone per i todo di un account in eliminazione: nessun client
+-- si sincronizzerà più, e un account con milioni di todo ne creerebbe
+-- altrettante
+CREATE OR REPLACE FUNCTION todos_insert_tombstones() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(u.user_id)
+    FROM (SELECT DISTINCT user_id FROM old_rows ORDER BY user_id) u;
+
+    INSERT INTO todo_tombstones (change_seq, user_id, todo_id)
+    SELECT nextval('todo_change_seq'), o.user_id, o.id
+    FROM old_rows o
+    WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.id = o.user_id AND u.status = 'DELETING');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,20 @@
+package com.example.dataware.todolist;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.dataware.todolist.support.SqlStatementCounter;
+
+/**
+ * Base dei test di integrazione: contesto completo su PostgreSQL e Redis
+ * reali (TestcontainersConfiguration), profilo test. Senza Docker i test
+ * vengono saltati.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({ TestcontainersConfiguration.class, SqlStatementCounter.Registration.class })
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class AbstractIntegrationTest {
+}
@@ -0,0 +1,45 @@
+package com.example.dataware.todolist;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * PostgreSQL e Redis dei test di integrazione, avviati da Spring Boot insieme
+ * al contesto e condivisi da tutti i test con la stessa configurazione.
+ *
+ * Le proprietà di connessione vengono registrate a mano: DataSourceConfig e
+ * RedisConfig leggono spring.datasource.* e spring.data.redis.* direttamente,
+ * senza ConnectionDetails (quindi senza @ServiceConnection).
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class TestcontainersConfiguration {
+
+    private static final int REDIS_PORT = 6379;
+
+    @Bean
+    PostgreSQLContainer postgresContainer() {
+        return new PostgreSQLContainer(DockerImageName.parse("postgres:16-alpine"));
+    }
+
+    @Bean
+    GenericContainer<?> redisContainer() {
+        return new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(REDIS_PORT);
+    }
+
+    @Bean
+    DynamicPropertyRegistrar containerProperties(PostgreSQLContainer postgresContainer,
+            GenericContainer<?> redisContainer) {
+        return registry -> {
+            registry.add("spring.datasource.url", () -> postgresContainer.getJdbcUrl());
+            registry.add("spring.datasource.username", () -> postgresContainer.getUsername());
+            registry.add("spring.datasource.password", () -> postgresContainer.getPassword());
+            registry.add("spring.data.redis.host", () -> redisContainer.getHost());
+            registry.add("spring.data.redis.port", () -> redisContainer.getMappedPort(REDIS_PORT));
+        };
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.example.dataware.todolist.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dataware.todolist.AbstractIntegrationTest;
+import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.service.interfaces.TodoService;
+import com.example.dataware.todolist.support.Measurement;
+import com.example.dataware.todolist.support.SqlStatementCounter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throughput degli INSERT di 10.000 todo in una transazione.
+ *
+ * - prima (IDENTITY): un INSERT ... RETURNING id per riga, eseguito subito
+ * per leggere la chiave generata, come faceva Hibernate con
+ * GenerationType.IDENTITY (nessun batch JDBC possibile).
+ * - dopo (sequence pooled): TodoService.createAll, con gli id riservati a
+ * blocchi da todos_seq e gli INSERT in batch JDBC da 50
+ * (reWriteBatchedInserts li invia come INSERT multi-riga).
+ *
+ * Entrambe le varianti scrivono su todos, quindi pagano gli stessi trigger
+ * (statistiche, change tracking). Eseguire con mvn test -Pbenchmark.
+ */
+@Slf4j
+@Tag("benchmark")
+class TodoInsertBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int TODOS = 10_000;
+    private static final String PER_ROW_INSERT = """
+            INSERT INTO todos (id, created_at, updated_at, title, completed, user_id, version)
+            VALUES (nextval('todos_seq'), now(), now(), ?, false, ?, 0)
+            RETURNING id
+            """;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void insertTenThousandTodos() {
+        Long userId = userRepository.save(User.builder()
+                .nome("Insert Benchmark")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("hash")
+                .profileImageUrl("http://localhost/avatar.png")
+                .build()).getId();
+        List<TodoDto> dtos = IntStream.range(0, TODOS)
+                .mapToObj(i -> new TodoDto("benchmark " + i))
+                .toList();
+
+        Measurement perRow = Measurement.of("IDENTITY (INSERT per riga)", 1, 3,
+                () -> transactionTemplate.executeWithoutResult(status -> dtos.forEach(dto -> jdbcTemplate
+                        .queryForObject(PER_ROW_INSERT, Long.class, dto.getTitle(), userId))));
+        Measurement batched = Measurement.of("sequence pooled (batch JDBC)", 1, 3,
+                () -> todoService.createAll(dtos, userId));
+
+        log.info("Insert di {} todo:\n{}\n{}\n{} righe/s -> {} righe/s", TODOS, perRow, batched,
+                Math.round(TODOS / perRow.avgMillis() * 1000), Math.round(TODOS / batched.avgMillis() * 1000));
+
+        // Round trip: 200 batch da 50 righe invece di 10.000 INSERT
+        SqlStatementCounter.reset();
+        todoService.createAll(dtos, userId);
+        assertThat(SqlStatementCounter.statements().stream()
+                .filter(sql -> sql.strip().toLowerCase().startsWith("insert"))
+                .count()).isEqualTo(TODOS / 50);
+        assertThat(batched.avgMillis()).isLessThan(perRow.avgMillis());
+    }
+
+}
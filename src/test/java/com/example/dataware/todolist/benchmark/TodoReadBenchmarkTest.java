@@ -0,0 +1,109 @@
+package com.example.dataware.todolist.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dataware.todolist.AbstractIntegrationTest;
+import com.example.dataware.todolist.dto.response.TodoResponse;
+import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.entity.Todo;
+import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.mapper.TodoMapper;
+import com.example.dataware.todolist.repository.TodoRepository;
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.service.interfaces.TodoService;
+import com.example.dataware.todolist.support.Measurement;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pagina di 100 todo (GET /todos?limit=100): lettura delle entità gestite +
+ * TodoMapper (percorso precedente) contro la proiezione diretta su
+ * TodoResponse (findResponsesByUserId). Stessa query e stessa transazione
+ * readOnly, cambia solo l'idratazione: tempo medio e byte allocati per pagina.
+ * Eseguire con mvn test -Pbenchmark.
+ */
+@Slf4j
+@Tag("benchmark")
+class TodoReadBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1_000;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoMapper todoMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void pageOfHundredTodos() {
+        Long userId = userRepository.save(User.builder()
+                .nome("Read Benchmark")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("hash")
+                .profileImageUrl("http://localhost/avatar.png")
+                .build()).getId();
+        todoService.createAll(IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> new TodoDto("benchmark " + i))
+                .toList(), userId);
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by("updatedAt").descending());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        Measurement entities = Measurement.of("entità + TodoMapper", WARMUP, ITERATIONS,
+                () -> transactionTemplate.execute(status -> loadEntities(userId).stream()
+                        .map(todo -> todoMapper.toDTO(todo))
+                        .toList()));
+        Measurement projection = Measurement.of("proiezione TodoResponse", WARMUP, ITERATIONS,
+                () -> transactionTemplate.execute(status -> todoRepository.findResponsesByUserId(userId, pageable)));
+
+        log.info("Pagina di {} todo:\n{}\n{}", PAGE_SIZE, entities, projection);
+
+        List<TodoResponse> expected = transactionTemplate.execute(status -> loadEntities(userId).stream()
+                .map(todo -> todoMapper.toDTO(todo))
+                .toList());
+        List<TodoResponse> actual = transactionTemplate.execute(
+                status -> todoRepository.findResponsesByUserId(userId, pageable));
+        assertThat(actual)
+                .usingRecursiveComparison()
+                .isEqualTo(expected);
+        assertThat(projection.avgAllocatedBytes()).isLessThan(entities.avgAllocatedBytes());
+    }
+
+    // Query del percorso precedente: entità gestite, con snapshot per il dirty checking
+    private List<Todo> loadEntities(Long userId) {
+        return entityManager.createQuery(
+                "SELECT t FROM Todo t WHERE t.user.id = :userId ORDER BY t.updatedAt DESC", Todo.class)
+                .setParameter("userId", userId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.example.dataware.todolist.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dataware.todolist.AbstractIntegrationTest;
+import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.service.JobLockService;
+import com.example.dataware.todolist.service.interfaces.TodoService;
+
+/**
+ * Archiviazione dei todo completati (TodoArchiveJob): esecuzione su una sola
+ * istanza, utenti con una scrittura in corso saltati senza attesa e ordine dei
+ * lock advisory -> todo_stats anche per le DELETE (V14).
+ *
+ * I todo da archiviare hanno completed_at nel 2000, quindi l'archiviazione
+ * con before = BEFORE non tocca i dati degli altri test.
+ */
+class TodoArchiveJobTest extends AbstractIntegrationTest {
+
+    private static final Instant BEFORE = Instant.parse("2001-01-01T00:00:00Z");
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void oldCompletedTodosAreMovedAndStatsUpdated() {
+        Long userId = createUser();
+        List<Long> old = createTodos(userId, 3);
+        createTodos(userId, 1);
+        completeLongAgo(old);
+
+        assertThat(todoService.archiveCompleted(BEFORE, 100)).isEqualTo(3);
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM todos_archive WHERE user_id = ?", Long.class, userId))
+                .containsExactlyInAnyOrderElementsOf(old);
+        assertThat(jdbcTemplate.queryForObject("SELECT total FROM todo_stats WHERE user_id = ?", Long.class,
+                userId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT completed FROM todo_stats WHERE user_id = ?", Long.class,
+                userId)).isZero();
+    }
+
+    @Test
+    void usersWithAWriteInProgressAreSkippedWithoutWaiting() throws Exception {
+        Long idle = createUser();
+        Long busy = createUser();
+        List<Long> idleTodos = createTodos(idle, 2);
+        List<Long> busyTodos = createTodos(busy, 3);
+        completeLongAgo(idleTodos);
+        completeLongAgo(busyTodos.subList(0, 2));
+
+        // Scrittura in corso sull'utente busy (PATCH su un todo attivo): tiene
+        // l'advisory lock dell'utente fino al commit
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> writer = inTransaction(() -> {
+            jdbcTemplate.update("UPDATE todos SET title = 'In modifica' WHERE id = ?", busyTodos.get(2));
+            locked.countDown();
+            await(release);
+        });
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        int archived = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> todoService.archiveCompleted(BEFORE, 100));
+        assertThat(archived).isEqualTo(2);
+        assertThat(archivedIds(busy)).isEmpty();
+
+        release.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+
+        assertThat(todoService.archiveCompleted(BEFORE, 100)).isEqualTo(2);
+        assertThat(archivedIds(busy)).containsExactlyInAnyOrderElementsOf(busyTodos.subList(0, 2));
+    }
+
+    @Test
+    void deleteTakesTheUserLockBeforeTodoStats() throws Exception {
+        Long userId = createUser();
+        List<Long> todoIds = createTodos(userId, 2);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> writer = inTransaction(() -> {
+            jdbcTemplate.update("UPDATE todos SET title = 'In modifica' WHERE id = ?", todoIds.get(0));
+            locked.countDown();
+            await(release);
+        });
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // La DELETE attende l'advisory lock dell'utente...
+        Future<?> delete = inTransaction(
+                () -> jdbcTemplate.update("DELETE FROM todos WHERE id = ?", todoIds.get(1)));
+        waitForAdvisoryLockWait();
+
+        // ...senza tenere la riga di todo_stats (prima di V14 la bloccava)
+        inTransaction(() -> jdbcTemplate.queryForList(
+                "SELECT user_id FROM todo_stats WHERE user_id = ? FOR UPDATE NOWAIT", Long.class, userId))
+                .get(10, TimeUnit.SECONDS);
+
+        release.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        delete.get(10, TimeUnit.SECONDS);
+        assertThat(jdbcTemplate.queryForObject("SELECT total FROM todo_stats WHERE user_id = ?", Long.class,
+                userId)).isEqualTo(1);
+    }
+
+    @Test
+    void jobRunsOnOneInstanceAtATime() {
+        boolean ran = jobLockService.runExclusively("todo-archive-test", () -> {
+            // Un'altra sessione (un'altra istanza) non ottiene il lock
+            assertThat(jobLockService.runExclusively("todo-archive-test", () -> {
+            })).isFalse();
+        });
+
+        assertThat(ran).isTrue();
+        assertThat(jobLockService.runExclusively("todo-archive-test", () -> {
+        })).isTrue();
+    }
+
+    @Test
+    void jobLockIsReleasedWhenTheJobFails() {
+        assertThatThrownBy(() -> jobLockService.runExclusively("todo-archive-test", () -> {
+            throw new IllegalStateException("errore del job");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(jobLockService.runExclusively("todo-archive-test", () -> {
+        })).isTrue();
+    }
+
+    private Long createUser() {
+        return userRepository.save(User.builder()
+                .nome("Archivio")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("hash")
+                .profileImageUrl("http://localhost/avatar.png")
+                .build()).getId();
+    }
+
+    private List<Long> createTodos(Long userId, int count) {
+        List<TodoDto> todoDtos = IntStream.range(0, count)
+                .mapToObj(i -> new TodoDto("Todo " + i))
+                .toList();
+        return todoService.createAll(todoDtos, userId).stream()
+                .map(todo -> todo.getId())
+                .toList();
+    }
+
+    // completed_at è gestito dal trigger su completed: si imposta dopo
+    private void completeLongAgo(List<Long> todoIds) {
+        for (Long todoId : todoIds) {
+            jdbcTemplate.update("UPDATE todos SET completed = TRUE WHERE id = ?", todoId);
+            jdbcTemplate.update("UPDATE todos SET completed_at = '2000-06-01T00:00:00Z' WHERE id = ?", todoId);
+        }
+    }
+
+    private List<Long> archivedIds(Long userId) {
+        return jdbcTemplate.queryForList("SELECT id FROM todos_archive WHERE user_id = ?", Long.class, userId);
+    }
+
+    private Future<?> inTransaction(Runnable work) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return executor.submit(() -> transactionTemplate.executeWithoutResult(status -> work.run()));
+    }
+
+    private void waitForAdvisoryLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_locks WHERE locktype = 'advisory' AND NOT granted", Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("La DELETE non è in attesa dell'advisory lock");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
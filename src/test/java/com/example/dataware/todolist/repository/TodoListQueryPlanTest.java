@@ -0,0 +1,129 @@
+package com.example.dataware.todolist.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.dataware.todolist.AbstractIntegrationTest;
+import com.example.dataware.todolist.util.sort.TodoSortableProperty;
+
+/**
+ * Regressione dei piani di esecuzione delle liste di todo (indici di V2): per
+ * ogni proprietà di TodoSortableProperty, con e senza filtro completed, sia la
+ * paginazione a offset (GET /todos) sia quella keyset (GET /todos/scroll)
+ * devono essere servite da un index scan già ordinato, senza Seq Scan né Sort.
+ *
+ * Le query riproducono la forma generata da Spring Data JPA
+ * (ORDER BY proprietà, id e predicato di seek per il keyset) su una tabella
+ * con molti utenti e statistiche aggiornate (ANALYZE).
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TodoListQueryPlanTest extends AbstractIntegrationTest {
+
+    private static final long FIRST_USER_ID = 5_000_000L;
+    private static final int USERS = 200;
+    private static final int TODOS_PER_USER = 100;
+    private static final Pattern SEQ_SCAN_OR_SORT = Pattern.compile("Seq Scan|(^|->\\s*)(Incremental )?Sort\\b",
+            Pattern.MULTILINE);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void populate() {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, created_at, updated_at, nome, email, password, profile_image_url, role,
+                                   status)
+                SELECT ?::bigint + g, now(), now(), 'Piano ' || g, 'plan-' || g || '@example.com', 'hash',
+                       'http://localhost/avatar.png', 'USER', 'ACTIVE'
+                FROM generate_series(0, ? - 1) AS g
+                """, FIRST_USER_ID, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO todos (id, created_at, updated_at, title, completed, user_id, version)
+                SELECT ?::bigint * 10 + g,
+                       now() - make_interval(secs => g),
+                       now() - make_interval(secs => (g * 7919) % 100000),
+                       'todo ' || md5(g::text),
+                       g % 3 = 0,
+                       ?::bigint + g % ?,
+                       0
+                FROM generate_series(0, ? - 1) AS g
+                """, FIRST_USER_ID, FIRST_USER_ID, USERS, USERS * TODOS_PER_USER);
+        jdbcTemplate.execute("ANALYZE todos");
+    }
+
+    @ParameterizedTest
+    @EnumSource(TodoSortableProperty.class)
+    void offsetPageUsesIndexOrder(TodoSortableProperty property) {
+        String column = column(property);
+
+        assertIndexOrdered("SELECT id, title, completed, created_at, updated_at FROM todos WHERE user_id = ? "
+                + "ORDER BY " + column + " DESC LIMIT 20 OFFSET 40", FIRST_USER_ID);
+        assertIndexOrdered("SELECT id, title, completed, created_at, updated_at FROM todos "
+                + "WHERE user_id = ? AND completed = ? ORDER BY " + column + " ASC LIMIT 20", FIRST_USER_ID, true);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TodoSortableProperty.class)
+    void keysetPageUsesIndexOrder(TodoSortableProperty property) {
+        String column = column(property);
+        Object after = sampleValue(property);
+        String seek = property == TodoSortableProperty.id
+                ? "id < ?"
+                : "(" + column + " < ? OR (" + column + " = ? AND id < ?))";
+        Object[] seekArgs = property == TodoSortableProperty.id
+                ? new Object[] { after }
+                : new Object[] { after, after, Long.MAX_VALUE };
+
+        assertIndexOrdered("SELECT * FROM todos WHERE user_id = ? AND " + seek
+                + " ORDER BY " + column + " DESC, id DESC LIMIT 21", prepend(FIRST_USER_ID, seekArgs));
+        assertIndexOrdered("SELECT * FROM todos WHERE user_id = ? AND completed = ? AND " + seek
+                + " ORDER BY " + column + " DESC, id DESC LIMIT 21", prepend(FIRST_USER_ID, true, seekArgs));
+    }
+
+    private void assertIndexOrdered(String sql, Object... args) {
+        String plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args).stream()
+                .collect(Collectors.joining("\n"));
+
+        assertThat(plan).as("Piano di %s:%n%s", sql, plan)
+                .containsPattern("Index (Only )?Scan")
+                .doesNotContainPattern(SEQ_SCAN_OR_SORT);
+    }
+
+    private static String column(TodoSortableProperty property) {
+        return switch (property) {
+            case createdAt -> "created_at";
+            case updatedAt -> "updated_at";
+            default -> property.name();
+        };
+    }
+
+    private static Object sampleValue(TodoSortableProperty property) {
+        return switch (property) {
+            case id -> Long.MAX_VALUE;
+            case title -> "zzz";
+            case completed -> true;
+            case createdAt, updatedAt -> Timestamp.from(Instant.now().plusSeconds(60));
+        };
+    }
+
+    private static Object[] prepend(Object... values) {
+        Object[] last = (Object[]) values[values.length - 1];
+        Object[] result = new Object[values.length - 1 + last.length];
+        System.arraycopy(values, 0, result, 0, values.length - 1);
+        System.arraycopy(last, 0, result, values.length - 1, last.length);
+        return result;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.example.dataware.todolist.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.dataware.todolist.AbstractIntegrationTest;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+
+class ResourceVersionServiceTest extends AbstractIntegrationTest {
+
+    private static final long TTL_SECONDS = 60;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private NearCacheService nearCacheService;
+
+    @Autowired
+    private StatefulRedisConnection<String, String> redisConnectionApp;
+
+    @Test
+    void missingVersionIsInitializedOnceWithTtl() {
+        String key = key();
+        long before = System.currentTimeMillis();
+
+        Long first = resourceVersionService.current(key, TTL_SECONDS);
+        Long second = resourceVersionService.current(key, TTL_SECONDS);
+
+        assertThat(first).isBetween(before, System.currentTimeMillis());
+        assertThat(second).isEqualTo(first);
+        assertThat(redisConnectionApp.sync().ttl(key)).isBetween(1L, TTL_SECONDS);
+    }
+
+    @Test
+    void incrementIsVisibleImmediately() {
+        String key = key();
+        Long initial = resourceVersionService.current(key, TTL_SECONDS);
+
+        resourceVersionService.increment(key, TTL_SECONDS);
+
+        assertThat(resourceVersionService.current(key, TTL_SECONDS)).isEqualTo(initial + 1);
+    }
+
+    @Test
+    void versionIsReadFromRedisNotFromNearCache() {
+        String key = key();
+        resourceVersionService.current(key, TTL_SECONDS);
+
+        // Incremento fatto da un'altra istanza: nessuna invalidazione locale
+        redisConnectionApp.sync().incr(key);
+        Long expected = Long.valueOf(redisConnectionApp.sync().get(key));
+
+        assertThat(resourceVersionService.current(key, TTL_SECONDS)).isEqualTo(expected);
+        assertThat(nearCacheService.get(key)).isNull();
+    }
+
+    @Test
+    void incrementOfMissingVersionStartsFromCurrentTimestamp() {
+        String key = key();
+        long before = System.currentTimeMillis();
+
+        resourceVersionService.increment(key, TTL_SECONDS);
+
+        assertThat(resourceVersionService.current(key, TTL_SECONDS)).isGreaterThanOrEqualTo(before);
+    }
+
+    private static String key() {
+        return "test:ver:" + UUID.randomUUID();
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.example.dataware.todolist.service.implementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.dataware.todolist.AbstractIntegrationTest;
+import com.example.dataware.todolist.dto.response.TokenResponse;
+import com.example.dataware.todolist.dto.validator.LoginDto;
+import com.example.dataware.todolist.dto.validator.UserDto;
+import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.exception.custom.InvalidCredentialsException;
+import com.example.dataware.todolist.filter.jwt.JwtRefreshFilter;
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.service.interfaces.AuthService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Login, refresh e logout con la cache di secondo livello di User.
+ *
+ * Le UPDATE con JdbcTemplate simulano una scrittura su un'altra istanza il
+ * cui messaggio di invalidazione (l2-cache:users:evict) è andato perso: la
+ * cache di questa istanza resta obsoleta.
+ */
+class AuthServiceImplTest extends AbstractIntegrationTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtRefreshFilter jwtRefreshFilter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentRefreshTokenIsAccepted() throws Exception {
+        User user = register();
+        TokenResponse tokens = authService.login(login(user.getEmail()));
+
+        assertThat(refresh(tokens.getRefreshToken())).isTrue();
+    }
+
+    @Test
+    void refreshTokenRevokedOnAnotherInstanceIsRejectedDespiteStaleCache() throws Exception {
+        User user = register();
+        TokenResponse tokens = authService.login(login(user.getEmail()));
+        userRepository.findByEmail(user.getEmail());
+
+        // Logout su un'altra istanza
+        jdbcTemplate.update("UPDATE users SET refresh_token = NULL WHERE id = ?", user.getId());
+        assertThat(userRepository.findByEmail(user.getEmail()).orElseThrow().getRefreshToken()).isNotNull();
+
+        assertThat(refresh(tokens.getRefreshToken())).isFalse();
+    }
+
+    @Test
+    void refreshTokenRotatedOnAnotherInstanceIsAccepted() throws Exception {
+        User user = register();
+        authService.login(login(user.getEmail()));
+        String previous = storedRefreshToken(user.getId());
+        // iat è al secondo: il token successivo deve essere diverso
+        Thread.sleep(1100);
+        TokenResponse rotated = authService.login(login(user.getEmail()));
+        String current = storedRefreshToken(user.getId());
+
+        // Cache di questa istanza con il token precedente...
+        jdbcTemplate.update("UPDATE users SET refresh_token = ? WHERE id = ?", previous, user.getId());
+        entityManagerFactory.getCache().evict(User.class, user.getId());
+        userRepository.findByEmail(user.getEmail());
+        // ...e rotazione su un'altra istanza
+        jdbcTemplate.update("UPDATE users SET refresh_token = ? WHERE id = ?", current, user.getId());
+
+        assertThat(refresh(rotated.getRefreshToken())).isTrue();
+    }
+
+    @Test
+    void accountInDeletionIsRejectedDespiteStaleCache() throws Exception {
+        User user = register();
+        TokenResponse tokens = authService.login(login(user.getEmail()));
+        userRepository.findByEmail(user.getEmail());
+
+        // DELETE /users su un'altra istanza (il refresh token resta, per
+        // verificare anche il controllo sullo stato)
+        jdbcTemplate.update("UPDATE users SET status = 'DELETING' WHERE id = ?", user.getId());
+
+        assertThat(refresh(tokens.getRefreshToken())).isFalse();
+        assertThatThrownBy(() -> authService.login(login(user.getEmail())))
+                .isInstanceOf(InvalidCredentialsException.class);
+    }
+
+    @Test
+    void staleUserCopyIsSavedWithoutConflict() {
+        User registered = register();
+        User stale = userRepository.findById(registered.getId()).orElseThrow();
+
+        // Login concorrente (altra scheda o altra istanza): l'utente cambia
+        authService.login(login(registered.getEmail()));
+
+        // L'utente non è versionato: vince l'ultima scrittura, nessun 409
+        stale.setNome("Rinominato");
+        assertThatCode(() -> userRepository.save(stale)).doesNotThrowAnyException();
+        assertThat(jdbcTemplate.queryForObject("SELECT nome FROM users WHERE id = ?", String.class,
+                registered.getId())).isEqualTo("Rinominato");
+    }
+
+    // true se JwtRefreshFilter lascia passare la richiesta
+    private boolean refresh(String refreshToken) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/refresh-token");
+        request.addHeader("Authorization", "Bearer " + refreshToken);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        jwtRefreshFilter.doFilter(request, response, filterChain);
+
+        return filterChain.getRequest() != null;
+    }
+
+    private String storedRefreshToken(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT refresh_token FROM users WHERE id = ?", String.class, userId);
+    }
+
+    private User register() {
+        return authService.register(UserDto.builder()
+                .nome("Auth")
+                .email(UUID.randomUUID() + "@example.com")
+                .password(PASSWORD)
+                .build());
+    }
+
+    private static LoginDto login(String email) {
+        LoginDto loginDto = new LoginDto();
+        loginDto.setEmail(email);
+        loginDto.setPassword(PASSWORD);
+        return loginDto;
+    }
+
+}
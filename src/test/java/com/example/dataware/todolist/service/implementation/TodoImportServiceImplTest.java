@@ -0,0 +1,188 @@
+package com.example.dataware.todolist.service.implementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.dataware.todolist.dto.response.TodoImportResponse;
+import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.exception.custom.InvalidImportFileException;
+import com.example.dataware.todolist.service.interfaces.TodoService;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
+import com.example.dataware.todolist.util.importer.TodoImportReader;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import tools.jackson.databind.json.JsonMapper;
+
+class TodoImportServiceImplTest {
+
+    private static final int BATCH_SIZE = 3;
+    private static final Long USER_ID = 42L;
+
+    private static final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+
+    private final TodoService todoService = mock(TodoService.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final TodoImportServiceImpl importService = new TodoImportServiceImpl(todoService,
+            validatorFactory.getValidator(), entityManager, JsonMapper.builder().build(), BATCH_SIZE);
+
+    // Titoli di ogni chiamata a createAll (copiati: il service riusa la lista)
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void recordBatches() {
+        doAnswer(invocation -> {
+            List<TodoDto> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(todoDto -> todoDto.getTitle()).toList());
+            return List.of();
+        }).when(todoService).createAll(anyList(), eq(USER_ID));
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void fullBatchesAreFlushedWithoutAnEmptyTrailingCall() throws IOException {
+        TodoImportResponse response = importNdjson(titles(1, 6));
+
+        assertThat(batches).containsExactly(
+                List.of("todo 1", "todo 2", "todo 3"),
+                List.of("todo 4", "todo 5", "todo 6"));
+        assertThat(response.getAccepted()).isEqualTo(6);
+        assertThat(response.getRejected()).isZero();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void partialLastBatchIsFlushedAtEndOfStream() throws IOException {
+        TodoImportResponse response = importNdjson(titles(1, 7));
+
+        assertThat(batches).extracting(batch -> batch.size()).containsExactly(3, 3, 1);
+        assertThat(batches.get(2)).containsExactly("todo 7");
+        assertThat(response.getAccepted()).isEqualTo(7);
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void rejectedRowsDoNotCountTowardsTheBatch() throws IOException {
+        TodoImportResponse response = importNdjson("""
+                {"title":"todo 1"}
+                {"title":"abc"}
+                {"title":"todo 2"}
+                non json
+                {"title":"   "}
+                {}
+                {"title":"todo 3"}
+                {"title":"todo 4"}
+                """);
+
+        assertThat(batches).containsExactly(List.of("todo 1", "todo 2", "todo 3"), List.of("todo 4"));
+        assertThat(response.getAccepted()).isEqualTo(4);
+        assertThat(response.getRejected()).isEqualTo(4);
+        assertThat(response.isErrorsTruncated()).isFalse();
+        assertThat(response.getErrors()).extracting(error -> error.getLine()).containsExactly(2L, 4L, 5L, 6L);
+        assertThat(response.getErrors().get(0).getError()).isEqualTo("Il titolo deve avere almeno 4 caratteri");
+        assertThat(response.getErrors().get(1).getError()).isEqualTo("JSON non valido");
+        assertThat(response.getErrors().get(2).getError())
+                .isEqualTo("Il titolo deve avere almeno 4 caratteri; Il titolo è obbligatorio");
+        assertThat(response.getErrors().get(3).getError()).isEqualTo("Il titolo è obbligatorio");
+    }
+
+    @Test
+    void oversizeRowIsRejectedAndImportContinues() throws IOException {
+        String oversize = "{\"title\":\"" + "a".repeat(TodoImportReader.MAX_RECORD_LENGTH) + "\"}";
+
+        TodoImportResponse response = importNdjson(
+                "{\"title\":\"todo 1\"}\n" + oversize + "\n{\"title\":\"todo 2\"}\n");
+
+        assertThat(batches).containsExactly(List.of("todo 1", "todo 2"));
+        assertThat(response.getRejected()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(2);
+            assertThat(error.getError()).startsWith("Riga troppo lunga");
+        });
+    }
+
+    @Test
+    void reportedErrorsAreCappedButAllRejectionsAreCounted() throws IOException {
+        String invalid = IntStream.rangeClosed(1, 150)
+                .mapToObj(i -> "{\"title\":\"x\"}")
+                .collect(Collectors.joining("\n"));
+
+        TodoImportResponse response = importNdjson(invalid + "\n{\"title\":\"todo 1\"}\n");
+
+        assertThat(response.getAccepted()).isEqualTo(1);
+        assertThat(response.getRejected()).isEqualTo(150);
+        assertThat(response.getErrors()).hasSize(100);
+        assertThat(response.getErrors().get(99).getLine()).isEqualTo(100);
+        assertThat(response.isErrorsTruncated()).isTrue();
+    }
+
+    @Test
+    void emptyFileSavesNothing() throws IOException {
+        TodoImportResponse response = importNdjson("\n\n");
+
+        assertThat(response.getAccepted()).isZero();
+        assertThat(response.getRejected()).isZero();
+        verify(todoService, never()).createAll(anyList(), eq(USER_ID));
+    }
+
+    @Test
+    void csvWithoutTitleColumnFailsBeforeSavingAnything() {
+        assertThatThrownBy(() -> importTodos(TodoExportFormat.csv, "id,completed\n1,true\n"))
+                .isInstanceOf(InvalidImportFileException.class);
+        verify(todoService, never()).createAll(anyList(), eq(USER_ID));
+    }
+
+    @Test
+    void csvRowsAreBatchedLikeNdjson() throws IOException {
+        TodoImportResponse response = importTodos(TodoExportFormat.csv, """
+                id,title,completed
+                1,todo 1,false
+                2,"todo, 2",true
+                3,'=todo 3,false
+                4,todo 4,false
+                """);
+
+        assertThat(batches).containsExactly(List.of("todo 1", "todo, 2", "=todo 3"), List.of("todo 4"));
+        assertThat(response.getAccepted()).isEqualTo(4);
+    }
+
+    private TodoImportResponse importNdjson(String content) throws IOException {
+        return importTodos(TodoExportFormat.ndjson, content);
+    }
+
+    private TodoImportResponse importTodos(TodoExportFormat format, String content) throws IOException {
+        return importService.importTodos(USER_ID, format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String titles(int from, int to) {
+        return IntStream.rangeClosed(from, to)
+                .mapToObj(i -> "{\"title\":\"todo " + i + "\"}\n")
+                .collect(Collectors.joining());
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.example.dataware.todolist.service.implementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.dataware.todolist.AbstractIntegrationTest;
+import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.repository.TodoRepository;
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.service.interfaces.TodoService;
+
+/**
+ * PATCH /todos/batch/completed con i filtri delle liste (completed, q).
+ */
+class TodoServiceMarkAllTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void createTodos() {
+        userId = userRepository.save(User.builder()
+                .nome("Mark All")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("hash")
+                .profileImageUrl("http://localhost/avatar.png")
+                .build()).getId();
+        todoService.createAll(List.of(new TodoDto("Spesa al mercato"), new TodoDto("Spedire pacco"),
+                new TodoDto("Pagare bollette")), userId);
+    }
+
+    @Test
+    void textFilterUpdatesOnlyMatchingTodos() {
+        assertThat(todoService.markAll(true, null, "spe", userId)).isEqualTo(2);
+
+        assertThat(completedByTitle()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "Spesa al mercato", true, "Spedire pacco", true, "Pagare bollette", false));
+    }
+
+    @Test
+    void completedFilterAndTextFilterCombine() {
+        todoService.markAll(true, null, "spesa", userId);
+
+        assertThat(todoService.markAll(false, true, "spe", userId)).isEqualTo(1);
+        assertThat(todoService.markAll(true, false, null, userId)).isEqualTo(3);
+    }
+
+    @Test
+    void textWithoutSearchableTermsMatchesNothing() {
+        assertThat(todoService.markAll(true, null, "  !? ", userId)).isZero();
+        assertThat(completedByTitle()).doesNotContainValue(true);
+    }
+
+    private Map<String, Boolean> completedByTitle() {
+        return todoRepository.findAll().stream()
+                .filter(todo -> todo.getUser().getId().equals(userId))
+                .collect(Collectors.toMap(todo -> todo.getTitle(), todo -> todo.isCompleted()));
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.example.dataware.todolist.service.implementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+
+import com.example.dataware.todolist.AbstractIntegrationTest;
+import com.example.dataware.todolist.dto.validator.TodoBatchUpdateItemDto;
+import com.example.dataware.todolist.dto.validator.TodoDto;
+import com.example.dataware.todolist.dto.validator.TodoUpdateDto;
+import com.example.dataware.todolist.entity.Todo;
+import com.example.dataware.todolist.entity.User;
+import com.example.dataware.todolist.repository.UserRepository;
+import com.example.dataware.todolist.service.interfaces.TodoService;
+import com.example.dataware.todolist.support.SqlStatementCounter;
+
+/**
+ * Round trip verso il database per operazione: le operazioni sui todo usano
+ * lo userId del JWT senza leggere users, le operazioni batch raggruppano le
+ * scritture in batch JDBC (batch_size = 50) o in una sola istruzione.
+ */
+class TodoServiceStatementCountTest extends AbstractIntegrationTest {
+
+    private static final Pattern USERS_TABLE = Pattern.compile("\\busers\\b", Pattern.CASE_INSENSITIVE);
+    private static final int BATCH = 120;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = userRepository.save(User.builder()
+                .nome("Statement Count")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("hash")
+                .profileImageUrl("http://localhost/avatar.png")
+                .build()).getId();
+    }
+
+    @Test
+    void singleTodoOperationsDoNotLoadTheUser() {
+        Todo todo = todoService.create(new TodoDto("primo"), userId);
+
+        // Cache vuota: una sola SELECT sulla proiezione
+        SqlStatementCounter.reset();
+        todoService.findOne(todo.getId(), userId, false);
+        assertStatements(1);
+
+        SqlStatementCounter.reset();
+        todoService.findAll(userId, 0, 20, null, Sort.unsorted(), false, false);
+        assertStatements(1);
+
+        SqlStatementCounter.reset();
+        todoService.update(todo.getId(), new TodoUpdateDto("modificato", true), null, userId);
+        assertStatements(1);
+
+        SqlStatementCounter.reset();
+        todoService.delete(todo.getId(), null, userId);
+        assertStatements(1);
+    }
+
+    @Test
+    void createUsesOneInsertAndAtMostOneSequenceCall() {
+        SqlStatementCounter.reset();
+        todoService.create(new TodoDto("nuovo"), userId);
+
+        List<String> statements = SqlStatementCounter.statements();
+        assertThat(statements).noneMatch(sql -> USERS_TABLE.matcher(sql).find());
+        assertThat(count(statements, "insert")).isEqualTo(1);
+        assertThat(statements).hasSizeLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void batchOperationsAreGroupedInJdbcBatches() {
+        List<TodoDto> dtos = IntStream.range(0, BATCH)
+                .mapToObj(i -> new TodoDto("batch " + i))
+                .toList();
+
+        // 120 INSERT in 3 batch JDBC, id riservati a blocchi dalla sequence
+        SqlStatementCounter.reset();
+        List<Todo> created = todoService.createAll(dtos, userId);
+        List<String> statements = SqlStatementCounter.statements();
+        assertThat(created).hasSize(BATCH);
+        assertThat(count(statements, "insert")).isEqualTo(3);
+        assertThat(statements.stream().filter(sql -> sql.contains("nextval")).count()).isLessThanOrEqualTo(4);
+        assertThat(statements).noneMatch(sql -> USERS_TABLE.matcher(sql).find());
+
+        // Una SELECT per tutti gli id, 120 UPDATE in 3 batch JDBC
+        List<TodoBatchUpdateItemDto> items = created.stream()
+                .map(todo -> new TodoBatchUpdateItemDto(todo.getId(), null, true))
+                .toList();
+        SqlStatementCounter.reset();
+        todoService.updateAll(items, userId);
+        statements = SqlStatementCounter.statements();
+        assertThat(count(statements, "select")).isEqualTo(1);
+        assertThat(count(statements, "update")).isEqualTo(3);
+        assertThat(statements).hasSize(4);
+
+        // Istruzioni set-based: una sola per l'intero insieme
+        SqlStatementCounter.reset();
+        todoService.markAll(false, null, null, userId);
+        assertStatements(1);
+
+        SqlStatementCounter.reset();
+        todoService.deleteAll(created.stream().map(todo -> todo.getId()).toList(), userId);
+        assertStatements(1);
+    }
+
+    private static void assertStatements(int expected) {
+        List<String> statements = SqlStatementCounter.statements();
+        assertThat(statements).as("SQL eseguito: %s", statements).hasSize(expected);
+        assertThat(statements).noneMatch(sql -> USERS_TABLE.matcher(sql).find());
+    }
+
+    // Istruzioni che iniziano con la parola chiave (es: insert, update)
+    private static long count(List<String> statements, String keyword) {
+        return statements.stream()
+                .filter(sql -> sql.strip().toLowerCase().startsWith(keyword))
+                .count();
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.example.dataware.todolist.support;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Misura minimale per i benchmark (tag benchmark, profilo Maven benchmark):
+ * alcune esecuzioni di riscaldamento scartate, poi tempo medio e byte allocati
+ * in media dal thread corrente per esecuzione.
+ *
+ * Non sostituisce JMH: serve a confrontare due implementazioni che passano
+ * dal database, dove il costo dominante sono i round trip e non il JIT.
+ */
+public record Measurement(String name, int iterations, double avgMillis, long avgAllocatedBytes) {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static Measurement of(String name, int warmup, int iterations, Runnable task) {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        return new Measurement(name, iterations, elapsed / 1_000_000.0 / iterations, allocated / iterations);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %8.2f ms/op %12d B/op (%d op)", name, avgMillis, avgAllocatedBytes, iterations);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.example.dataware.todolist.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Registra le istruzioni JDBC eseguite dal thread corrente: ogni esecuzione
+ * è un round trip verso il database, un batch JDBC conta una volta sola
+ * qualunque sia il numero di righe. Le istruzioni eseguite da altri thread
+ * (job schedulati, listener) non vengono contate.
+ *
+ * Il DataSource dell'applicazione viene avvolto da datasource-proxy quando la
+ * configurazione interna Registration è importata (vedere
+ * AbstractIntegrationTest).
+ */
+public final class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(() -> new ArrayList<>());
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        STATEMENTS.get().add(queryInfoList.get(0).getQuery());
+    }
+
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    /**
+     * @return le istruzioni eseguite dal thread corrente dall'ultimo reset
+     */
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Registration {
+
+        @Bean
+        static BeanPostProcessor sqlStatementCounterPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    // Solo il DataSource usato da JPA (LazyConnectionDataSourceProxy)
+                    if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .listener(new SqlStatementCounter())
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.example.dataware.todolist.util.cursor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.example.dataware.todolist.exception.custom.InvalidCursorException;
+
+class TodoCursorCodecTest {
+
+    private static final Sort BY_UPDATED_AT = Sort.by(Sort.Direction.DESC, "updatedAt");
+    private static final Sort BY_TITLE = Sort.by(Sort.Direction.ASC, "title");
+
+    @Test
+    void roundTripPreservesTypedKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("updatedAt", Instant.parse("2026-01-15T10:20:30.123456Z"));
+        keys.put("id", 42L);
+
+        KeysetScrollPosition position = TodoCursorCodec.decode(
+                TodoCursorCodec.encode(ScrollPosition.forward(keys)), BY_UPDATED_AT);
+
+        assertThat(position.getKeys()).isEqualTo(keys);
+        assertThat(position.scrollsForward()).isTrue();
+    }
+
+    @Test
+    void roundTripPreservesSeparatorsInTitles() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("title", "spesa: latte. uova:pane / 100% ✓");
+        keys.put("id", 7L);
+
+        KeysetScrollPosition position = TodoCursorCodec.decode(
+                TodoCursorCodec.encode(ScrollPosition.forward(keys)), BY_TITLE);
+
+        assertThat(position.getKeys()).isEqualTo(keys);
+    }
+
+    @Test
+    void missingCursorStartsFromFirstPage() {
+        assertThat(TodoCursorCodec.decode(null, BY_UPDATED_AT).isInitial()).isTrue();
+        assertThat(TodoCursorCodec.decode("  ", BY_UPDATED_AT).isInitial()).isTrue();
+        assertThat(TodoCursorCodec.decodeSearch(null).isInitial()).isTrue();
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String cursor = TodoCursorCodec.encode(ScrollPosition.forward(Map.of("title", "a", "id", 1L)));
+
+        assertThatThrownBy(() -> TodoCursorCodec.decode(cursor, BY_UPDATED_AT))
+                .isInstanceOf(InvalidCursorException.class)
+                .satisfies(e -> assertThat(((InvalidCursorException) e).getStatusCode()).isEqualTo(400));
+    }
+
+    @Test
+    void rejectsCursorWithoutTieBreaker() {
+        String cursor = TodoCursorCodec.encode(ScrollPosition.forward(Map.of("updatedAt", Instant.EPOCH)));
+
+        assertThatThrownBy(() -> TodoCursorCodec.decode(cursor, BY_UPDATED_AT))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void rejectsGarbledCursor() {
+        assertThatThrownBy(() -> TodoCursorCodec.decode("non-è-base64!", BY_UPDATED_AT))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> TodoCursorCodec.decode(encode("senza separatore"), BY_UPDATED_AT))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void rejectsTamperedValues() {
+        // Proprietà inesistente e valore non convertibile nel tipo della proprietà
+        String unknownProperty = encode(part("password", "x") + "." + part("id", "1"));
+        String badValue = encode(part("updatedAt", "ieri") + "." + part("id", "1"));
+
+        assertThatThrownBy(() -> TodoCursorCodec.decode(unknownProperty, BY_UPDATED_AT))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> TodoCursorCodec.decode(badValue, BY_UPDATED_AT))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void searchCursorRoundTripAndMismatch() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(TodoCursorCodec.SEARCH_RANK, 0.0759f);
+        keys.put("id", 99L);
+        String cursor = TodoCursorCodec.encode(ScrollPosition.forward(keys));
+
+        assertThat(TodoCursorCodec.decodeSearch(cursor).getKeys()).isEqualTo(keys);
+        assertThatThrownBy(() -> TodoCursorCodec.decode(cursor, BY_UPDATED_AT))
+                .isInstanceOf(InvalidCursorException.class);
+
+        String listCursor = TodoCursorCodec.encode(ScrollPosition.forward(Map.of("updatedAt", Instant.EPOCH,
+                "id", 1L)));
+        assertThatThrownBy(() -> TodoCursorCodec.decodeSearch(listCursor))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String part(String key, String value) {
+        return encode(key) + ":" + encode(value);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
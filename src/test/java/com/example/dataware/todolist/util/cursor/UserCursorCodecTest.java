@@ -0,0 +1,56 @@
+package com.example.dataware.todolist.util.cursor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+
+import com.example.dataware.todolist.exception.custom.InvalidCursorException;
+
+class UserCursorCodecTest {
+
+    @Test
+    void roundTrip() {
+        assertThat(UserCursorCodec.decode(UserCursorCodec.encode(1L))).isEqualTo(1L);
+        assertThat(UserCursorCodec.decode(UserCursorCodec.encode(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void missingCursorStartsFromFirstPage() {
+        assertThat(UserCursorCodec.decode(null)).isZero();
+        assertThat(UserCursorCodec.decode("")).isZero();
+    }
+
+    @Test
+    void rejectsGarbledCursor() {
+        assertThatThrownBy(() -> UserCursorCodec.decode("%%%"))
+                .isInstanceOf(InvalidCursorException.class)
+                .satisfies(e -> assertThat(((InvalidCursorException) e).getStatusCode()).isEqualTo(400));
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        assertThatThrownBy(() -> UserCursorCodec.decode(encode("id:abc")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> UserCursorCodec.decode(encode("email:a@b.c")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void rejectsTodoCursor() {
+        String todoCursor = TodoCursorCodec.encode(ScrollPosition.forward(Map.of("id", 5L)));
+
+        assertThatThrownBy(() -> UserCursorCodec.decode(todoCursor))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.example.dataware.todolist.util.etag;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.example.dataware.todolist.dto.response.TodoResponse;
+import com.example.dataware.todolist.exception.custom.InvalidIfMatchException;
+import com.example.dataware.todolist.exception.custom.TodoVersionMismatchException;
+
+class IfMatchTest {
+
+    @Test
+    void quotedVersionIsParsed() {
+        assertThat(IfMatch.expectedVersion("\"0\"")).isZero();
+        assertThat(IfMatch.expectedVersion(" \"42\" ")).isEqualTo(42L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "  ", "*", " * " })
+    void missingOrWildcardSkipsTheCheck(String header) {
+        assertThat(IfMatch.expectedVersion(header)).isNull();
+        assertThat(IfMatch.expectedVersion(null)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "3", "\"\"", "\"abc\"", "\"-1\"", "\"+1\"", "\"3", "3\"", "\"3\", \"4\"",
+            "\"99999999999999999999\"", "W/3", "todos-1-5" })
+    void malformedHeaderIsBadRequest(String header) {
+        assertThatThrownBy(() -> IfMatch.expectedVersion(header))
+                .isInstanceOf(InvalidIfMatchException.class)
+                .satisfies(e -> assertThat(((InvalidIfMatchException) e).getStatusCode()).isEqualTo(400));
+    }
+
+    @Test
+    void weakETagNeverMatches() {
+        assertThatThrownBy(() -> IfMatch.expectedVersion("W/\"3\""))
+                .isInstanceOf(TodoVersionMismatchException.class)
+                .satisfies(e -> assertThat(((TodoVersionMismatchException) e).getStatusCode()).isEqualTo(412));
+    }
+
+    @Test
+    void todoETagIsAcceptedAsIfMatch() {
+        TodoResponse todoResponse = TodoResponse.builder().id(1L).version(7L).archived(false).build();
+
+        String etag = ConditionalGet.todo(todoResponse);
+
+        assertThat(etag).isEqualTo("\"7\"");
+        assertThat(IfMatch.expectedVersion(etag)).isEqualTo(7L);
+    }
+
+    @Test
+    void archivedTodoHasADifferentETag() {
+        TodoResponse live = TodoResponse.builder().id(1L).version(7L).archived(false).build();
+        TodoResponse archived = TodoResponse.builder().id(1L).version(7L).archived(true).build();
+
+        assertThat(ConditionalGet.todo(archived)).isNotEqualTo(ConditionalGet.todo(live));
+    }
+
+}
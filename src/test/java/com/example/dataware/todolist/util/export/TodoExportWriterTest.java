@@ -0,0 +1,122 @@
+package com.example.dataware.todolist.util.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.example.dataware.todolist.dto.response.TodoResponse;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+class TodoExportWriterTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2026-01-02T10:15:30Z");
+    private static final Instant UPDATED_AT = Instant.parse("2026-01-03T08:00:00Z");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void csvStartsWithHeaderAndWritesOneLinePerTodo() throws IOException {
+        String csv = export(TodoExportFormat.csv, todo(1L, "Fare la spesa", false), todo(2L, "Pagare", true));
+
+        assertThat(csv).isEqualTo("""
+                id,title,completed,createdAt,updatedAt
+                1,Fare la spesa,false,2026-01-02T10:15:30Z,2026-01-03T08:00:00Z
+                2,Pagare,true,2026-01-02T10:15:30Z,2026-01-03T08:00:00Z
+                """);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '`', value = {
+            "latte, pane    | \"latte, pane\"",
+            "il \"solito\"  | \"il \"\"solito\"\"\"",
+            "`riga1\nriga2` | `\"riga1\nriga2\"`",
+            "`riga1\rriga2` | `\"riga1\rriga2\"`",
+            "=SUM(A1:A2)    | '=SUM(A1:A2)",
+            "+39 333        | '+39 333",
+            "-1             | '-1",
+            "@cmd           | '@cmd",
+            "=1,2           | \"'=1,2\"",
+            "a=b            | a=b",
+    })
+    void csvTitlesAreQuotedAndFormulasNeutralized(String title, String expected) throws IOException {
+        String csv = export(TodoExportFormat.csv, todo(1L, title, false));
+
+        String row = csv.substring(csv.indexOf('\n') + 1);
+        assertThat(row).isEqualTo("1," + expected + ",false," + CREATED_AT + "," + UPDATED_AT + "\n");
+    }
+
+    @Test
+    void ndjsonWritesOneJsonObjectPerLineWithoutHeader() throws IOException {
+        String ndjson = export(TodoExportFormat.ndjson, todo(1L, "riga1\nriga2", false), todo(2L, "=1,2", true));
+
+        List<String> lines = ndjson.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(ndjson).endsWith("\n");
+
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("title").asString()).isEqualTo("riga1\nriga2");
+        assertThat(first.get("completed").asBoolean()).isFalse();
+
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertThat(second.get("title").asString()).isEqualTo("=1,2");
+        assertThat(second.get("completed").asBoolean()).isTrue();
+    }
+
+    @Test
+    void outputIsUtf8() throws IOException {
+        String csv = export(TodoExportFormat.csv, todo(1L, "Città €", false));
+
+        assertThat(csv).contains("1,Città €,false");
+    }
+
+    @Test
+    void nothingIsWrittenBeforeFlush() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TodoExportWriter writer = new TodoExportWriter(TodoExportFormat.csv, out, objectMapper);
+
+        writer.writeHeader();
+        writer.write(todo(1L, "Fare la spesa", false));
+        assertThat(out.size()).isZero();
+
+        writer.flush();
+        assertThat(out.size()).isPositive();
+    }
+
+    private String export(TodoExportFormat format, TodoResponse... todos) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TodoExportWriter writer = new TodoExportWriter(format, out, objectMapper);
+
+        writer.writeHeader();
+        for (TodoResponse todo : todos) {
+            writer.write(todo);
+        }
+        writer.flush();
+
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static TodoResponse todo(Long id, String title, boolean completed) {
+        return TodoResponse.builder()
+                .id(id)
+                .title(title)
+                .completed(completed)
+                .createdAt(CREATED_AT)
+                .updatedAt(UPDATED_AT)
+                .version(0L)
+                .build();
+    }
+
+}
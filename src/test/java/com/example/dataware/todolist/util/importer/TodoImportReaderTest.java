@@ -0,0 +1,152 @@
+package com.example.dataware.todolist.util.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.dataware.todolist.exception.custom.InvalidImportFileException;
+import com.example.dataware.todolist.util.export.enums.TodoExportFormat;
+import com.example.dataware.todolist.util.importer.TodoImportReader.Line;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class TodoImportReaderTest {
+
+    private static final String TOO_LONG_ERROR = "Riga troppo lunga (massimo " + TodoImportReader.MAX_RECORD_LENGTH
+            + " caratteri)";
+
+    @Test
+    void ndjsonReadsTitleAndSkipsBlankLines() throws IOException {
+        List<Line> lines = readAll(TodoExportFormat.ndjson, """
+                {"id":1,"title":"Fare la spesa","completed":true}
+
+                   \t
+                {"title":"Pagare"}
+                """);
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0).number()).isEqualTo(1);
+        assertThat(lines.get(0).todo().getTitle()).isEqualTo("Fare la spesa");
+        assertThat(lines.get(1).number()).isEqualTo(4);
+        assertThat(lines.get(1).todo().getTitle()).isEqualTo("Pagare");
+    }
+
+    @Test
+    void ndjsonMalformedRowsAreReportedAndReadingContinues() throws IOException {
+        List<Line> lines = readAll(TodoExportFormat.ndjson, """
+                {"title":"Primo"
+                null
+                [1,2]
+                non json
+                {"title":"Ultimo"}""");
+
+        assertThat(lines).extracting(line -> line.number()).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(lines.subList(0, 4)).allSatisfy(line -> {
+            assertThat(line.todo()).isNull();
+            assertThat(line.error()).isEqualTo("JSON non valido");
+        });
+        assertThat(lines.get(4).todo().getTitle()).isEqualTo("Ultimo");
+    }
+
+    @Test
+    void ndjsonOversizeRowIsRejectedWithoutLosingTheNextOne() throws IOException {
+        String oversize = "{\"title\":\"" + "a".repeat(TodoImportReader.MAX_RECORD_LENGTH) + "\"}";
+        String limit = "{\"title\":\"" + "b".repeat(TodoImportReader.MAX_RECORD_LENGTH - 12) + "\"}";
+
+        List<Line> lines = readAll(TodoExportFormat.ndjson, oversize + "\n" + limit + "\n{\"title\":\"Dopo\"}\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0).error()).isEqualTo(TOO_LONG_ERROR);
+        assertThat(lines.get(1).error()).isNull();
+        assertThat(lines.get(1).todo().getTitle()).hasSize(TodoImportReader.MAX_RECORD_LENGTH - 12);
+        assertThat(lines.get(2).number()).isEqualTo(3);
+        assertThat(lines.get(2).todo().getTitle()).isEqualTo("Dopo");
+    }
+
+    @Test
+    void csvReadsTitleColumnInAnyPosition() throws IOException {
+        List<Line> lines = readAll(TodoExportFormat.csv, """
+                id, Title ,completed
+                1,Fare la spesa,false
+                2,Pagare,true
+                """);
+
+        assertThat(lines).extracting(line -> line.todo().getTitle()).containsExactly("Fare la spesa", "Pagare");
+        assertThat(lines).extracting(line -> line.number()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void csvReadsWhatTheExportWrites() throws IOException {
+        List<Line> lines = readAll(TodoExportFormat.csv, "\uFEFFid,title\r\n"
+                + "1,\"latte, pane\"\r\n"
+                + "2,\"il \"\"solito\"\"\"\r\n"
+                + "3,\"riga1\nriga2\"\r\n"
+                + "4,'=SUM(A1:A2)\r\n"
+                + "5,'normale\r\n"
+                + "\r\n"
+                + "6,Ultimo");
+
+        assertThat(lines).extracting(line -> line.todo().getTitle())
+                .containsExactly("latte, pane", "il \"solito\"", "riga1\nriga2", "=SUM(A1:A2)", "'normale", "Ultimo");
+        // Il record su due righe sposta la numerazione dei successivi
+        assertThat(lines).extracting(line -> line.number()).containsExactly(2L, 3L, 4L, 6L, 7L, 9L);
+    }
+
+    @Test
+    void csvRowWithoutTitleColumnGivesNullTitle() throws IOException {
+        List<Line> lines = readAll(TodoExportFormat.csv, "id,title\n1\n");
+
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).error()).isNull();
+        assertThat(lines.get(0).todo().getTitle()).isNull();
+    }
+
+    @Test
+    void csvOversizeRecordIsRejectedWithoutLosingTheNextOne() throws IOException {
+        String oversize = "1,\"" + "a\n".repeat(TodoImportReader.MAX_RECORD_LENGTH / 2) + "\"";
+
+        List<Line> lines = readAll(TodoExportFormat.csv, "id,title\n" + oversize + "\n2,Dopo\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0).number()).isEqualTo(2);
+        assertThat(lines.get(0).error()).isEqualTo(TOO_LONG_ERROR);
+        assertThat(lines.get(1).todo().getTitle()).isEqualTo("Dopo");
+        assertThat(lines.get(1).number()).isEqualTo(3 + TodoImportReader.MAX_RECORD_LENGTH / 2);
+    }
+
+    @Test
+    void csvWithoutTitleHeaderIsRejected() {
+        assertThatThrownBy(() -> readAll(TodoExportFormat.csv, "id,completed\n1,true\n"))
+                .isInstanceOf(InvalidImportFileException.class)
+                .hasMessageContaining("colonna title mancante");
+        assertThatThrownBy(() -> readAll(TodoExportFormat.csv, ""))
+                .isInstanceOf(InvalidImportFileException.class);
+    }
+
+    @Test
+    void emptyNdjsonHasNoRecords() throws IOException {
+        assertThat(readAll(TodoExportFormat.ndjson, "")).isEmpty();
+        assertThat(readAll(TodoExportFormat.ndjson, "\n\n")).isEmpty();
+    }
+
+    private static List<Line> readAll(TodoExportFormat format, String content) throws IOException {
+        TodoImportReader reader = new TodoImportReader(format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), JsonMapper.builder().build());
+        reader.readHeader();
+
+        List<Line> lines = new ArrayList<>();
+        Line line;
+        while ((line = reader.next()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+}
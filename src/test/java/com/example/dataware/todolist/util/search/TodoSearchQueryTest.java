@@ -0,0 +1,59 @@
+package com.example.dataware.todolist.util.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TodoSearchQueryTest {
+
+    @Test
+    void everyTermBecomesAPrefixMatch() {
+        assertThat(TodoSearchQuery.toTsQuery("Fare la spe")).isEqualTo("fare:* & la:* & spe:*");
+        assertThat(TodoSearchQuery.toTsQuery("spe")).isEqualTo("spe:*");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", " ", "   ", "\t\n", "&|!:()*'", " & | ! ", "<->", "''" })
+    void textWithoutSearchableTermsGivesNull(String text) {
+        assertThat(TodoSearchQuery.toTsQuery(text)).isNull();
+    }
+
+    @Test
+    void tsQueryOperatorsAreStripped() {
+        assertThat(TodoSearchQuery.toTsQuery("a&b|c!d:e(f)g*h'i"))
+                .isEqualTo("a:* & b:* & c:* & d:* & e:* & f:* & g:* & h:* & i:*");
+        assertThat(TodoSearchQuery.toTsQuery("!spesa")).isEqualTo("spesa:*");
+        assertThat(TodoSearchQuery.toTsQuery("spesa:*")).isEqualTo("spesa:*");
+        assertThat(TodoSearchQuery.toTsQuery("'latte' & (pane | uova)")).isEqualTo("latte:* & pane:* & uova:*");
+        assertThat(TodoSearchQuery.toTsQuery("l'acqua")).isEqualTo("l:* & acqua:*");
+    }
+
+    @Test
+    void lettersAndDigitsOfAnyAlphabetAreKept() {
+        assertThat(TodoSearchQuery.toTsQuery("Città 2026")).isEqualTo("città:* & 2026:*");
+        assertThat(TodoSearchQuery.toTsQuery("ΑΒΓ")).isEqualTo("αβγ:*");
+    }
+
+    @Test
+    void repeatedTermsAreKeptOnce() {
+        assertThat(TodoSearchQuery.toTsQuery("Spesa spesa SPESA latte")).isEqualTo("spesa:* & latte:*");
+    }
+
+    @Test
+    void atMostTenTermsAreKept() {
+        String text = IntStream.rangeClosed(1, 15)
+                .mapToObj(i -> "t" + i)
+                .collect(Collectors.joining(" "));
+
+        String tsQuery = TodoSearchQuery.toTsQuery(text);
+
+        assertThat(tsQuery.split(" & ")).hasSize(10);
+        assertThat(tsQuery).startsWith("t1:* & ").endsWith(" & t10:*");
+    }
+
+}